@@ -0,0 +1,7 @@
+-- Indexes for keyset (cursor) pagination of question listings.
+-- Listings are ordered by (created_at DESC, id DESC); the category index
+-- replaces idx_question_category, which is a prefix of it.
+
+CREATE INDEX IF NOT EXISTS idx_question_created ON questions(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_question_category_created ON questions(category, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_question_category;
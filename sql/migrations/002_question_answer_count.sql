@@ -0,0 +1,15 @@
+-- Store answer_count and last_activity_at on questions instead of counting
+-- answers per listed row. AnswerDAO updates both in the same transaction as
+-- each answer insert; QuestionDAO.repairAnswerCounts() fixes any drift.
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS answer_count INT NOT NULL DEFAULT 0;
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS last_activity_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+-- Backfill from the existing answers
+UPDATE questions q
+SET answer_count = c.actual_count,
+    last_activity_at = GREATEST(q.created_at, c.last_answer_at)
+FROM (SELECT q2.id, COUNT(a.id) AS actual_count, MAX(a.created_at) AS last_answer_at
+      FROM questions q2 LEFT JOIN answers a ON a.question_id = q2.id
+      GROUP BY q2.id) c
+WHERE q.id = c.id;
@@ -0,0 +1,7 @@
+-- Partial indexes for the unanswered-questions listing. They contain only
+-- rows with answer_count = 0 (see 002), so they stay small as answers grow.
+
+CREATE INDEX IF NOT EXISTS idx_question_unanswered
+    ON questions(created_at DESC, id DESC) WHERE answer_count = 0;
+CREATE INDEX IF NOT EXISTS idx_question_unanswered_category
+    ON questions(category, created_at DESC, id DESC) WHERE answer_count = 0;
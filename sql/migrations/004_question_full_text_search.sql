@@ -0,0 +1,24 @@
+-- Full-text search for questions: a weighted tsvector (title > tags > body)
+-- maintained by trigger, and a GIN index to match websearch_to_tsquery queries.
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+
+CREATE OR REPLACE FUNCTION questions_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', coalesce(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', replace(coalesce(NEW.tags, ''), ',', ' ')), 'B') ||
+        setweight(to_tsvector('english', coalesce(NEW.body, '')), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS questions_search_vector_trigger ON questions;
+CREATE TRIGGER questions_search_vector_trigger
+    BEFORE INSERT OR UPDATE OF title, body, tags ON questions
+    FOR EACH ROW EXECUTE FUNCTION questions_search_vector_update();
+
+-- Backfill existing rows by firing the trigger
+UPDATE questions SET title = title;
+
+CREATE INDEX IF NOT EXISTS idx_question_search ON questions USING GIN (search_vector);
@@ -0,0 +1,33 @@
+-- Maintained question counts per category and per tag (total, unanswered, solved)
+-- for the facets endpoint. QuestionDAO and AnswerDAO adjust them in the same
+-- transactions as question inserts, first answers and solves;
+-- FacetDAO.reconcileFacets() corrects any drift.
+
+CREATE TABLE IF NOT EXISTS question_facets (
+    facet_type VARCHAR(10) NOT NULL CHECK (facet_type IN ('category', 'tag')),
+    facet_value VARCHAR(255) NOT NULL,
+    total INT NOT NULL DEFAULT 0,
+    unanswered INT NOT NULL DEFAULT 0,
+    solved INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (facet_type, facet_value)
+);
+
+-- Backfill from the existing questions
+INSERT INTO question_facets (facet_type, facet_value, total, unanswered, solved)
+SELECT 'category', q.category, COUNT(*),
+       COUNT(*) FILTER (WHERE q.answer_count = 0),
+       COUNT(*) FILTER (WHERE q.is_solved)
+FROM questions q
+GROUP BY q.category
+UNION ALL
+SELECT 'tag', t.tag, COUNT(*),
+       COUNT(*) FILTER (WHERE q.answer_count = 0),
+       COUNT(*) FILTER (WHERE q.is_solved)
+FROM questions q
+CROSS JOIN LATERAL (
+    SELECT DISTINCT lower(btrim(raw)) AS tag FROM unnest(string_to_array(q.tags, ',')) AS raw
+) t
+WHERE t.tag <> ''
+GROUP BY t.tag
+ON CONFLICT (facet_type, facet_value) DO UPDATE SET
+    total = EXCLUDED.total, unanswered = EXCLUDED.unanswered, solved = EXCLUDED.solved;
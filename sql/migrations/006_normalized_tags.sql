@@ -0,0 +1,81 @@
+-- Normalized tags: each tag name stored once in tags, linked to questions through
+-- question_tags, replacing the comma-separated questions.tags column. Tag pages
+-- walk idx_question_tags_tag_created instead of scanning questions with LIKE.
+
+CREATE TABLE IF NOT EXISTS tags (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE  -- Trimmed and lower-cased
+);
+
+CREATE TABLE IF NOT EXISTS question_tags (
+    question_id INT NOT NULL REFERENCES questions(id) ON DELETE CASCADE,
+    tag_id INT NOT NULL REFERENCES tags(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL,  -- Copy of the question's created_at, for tag pages in feed order
+    PRIMARY KEY (question_id, tag_id)
+);
+
+-- Backfill from the comma-separated column, normalized the way Question.parseTags does
+INSERT INTO tags (name)
+SELECT DISTINCT left(lower(btrim(raw)), 50)
+FROM questions q CROSS JOIN LATERAL unnest(string_to_array(q.tags, ',')) AS raw
+WHERE btrim(raw) <> ''
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO question_tags (question_id, tag_id, created_at)
+SELECT DISTINCT q.id, t.id, q.created_at
+FROM questions q CROSS JOIN LATERAL unnest(string_to_array(q.tags, ',')) AS raw
+JOIN tags t ON t.name = left(lower(btrim(raw)), 50)
+ON CONFLICT DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_question_tags_tag_created ON question_tags(tag_id, created_at DESC, question_id DESC);
+
+-- search_vector now takes the tags from question_tags
+DROP TRIGGER IF EXISTS questions_search_vector_trigger ON questions;
+
+CREATE OR REPLACE FUNCTION question_search_vector(q_id INT, q_title TEXT, q_body TEXT) RETURNS TSVECTOR AS $$
+    SELECT setweight(to_tsvector('english', coalesce(q_title, '')), 'A') ||
+           setweight(to_tsvector('english', coalesce((
+               SELECT string_agg(t.name, ' ') FROM question_tags qt JOIN tags t ON t.id = qt.tag_id
+               WHERE qt.question_id = q_id), '')), 'B') ||
+           setweight(to_tsvector('english', coalesce(q_body, '')), 'C')
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION questions_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := question_search_vector(NEW.id, NEW.title, NEW.body);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER questions_search_vector_trigger
+    BEFORE INSERT OR UPDATE OF title, body ON questions
+    FOR EACH ROW EXECUTE FUNCTION questions_search_vector_update();
+
+CREATE OR REPLACE FUNCTION question_tags_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    UPDATE questions q SET search_vector = question_search_vector(q.id, q.title, q.body)
+    WHERE q.id IN (SELECT question_id FROM changed_tags);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS question_tags_insert_search_trigger ON question_tags;
+CREATE TRIGGER question_tags_insert_search_trigger
+    AFTER INSERT ON question_tags REFERENCING NEW TABLE AS changed_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION question_tags_search_vector_update();
+
+DROP TRIGGER IF EXISTS question_tags_delete_search_trigger ON question_tags;
+CREATE TRIGGER question_tags_delete_search_trigger
+    AFTER DELETE ON question_tags REFERENCING OLD TABLE AS changed_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION question_tags_search_vector_update();
+
+ALTER TABLE questions DROP COLUMN IF EXISTS tags;
+
+-- Tag facets now count question_tags rows, whose names may differ from the old raw values
+DELETE FROM question_facets WHERE facet_type = 'tag';
+INSERT INTO question_facets (facet_type, facet_value, total, unanswered, solved)
+SELECT 'tag', t.name, COUNT(*),
+       COUNT(*) FILTER (WHERE q.answer_count = 0),
+       COUNT(*) FILTER (WHERE q.is_solved)
+FROM question_tags qt JOIN tags t ON t.id = qt.tag_id JOIN questions q ON q.id = qt.question_id
+GROUP BY t.name;
@@ -0,0 +1,38 @@
+-- Hot feed: questions.hot_score is the log2 of the question's time-decayed activity,
+-- sum(weight * 2^(days since 2024-01-01)). Adding to it never needs the current time
+-- of earlier events, and ordering by it equals ordering by decayed activity at any
+-- moment, since every question decays at the same rate (half-life one day).
+
+CREATE OR REPLACE FUNCTION hot_activity(weight DOUBLE PRECISION, at TIMESTAMP) RETURNS DOUBLE PRECISION AS $$
+    SELECT EXTRACT(EPOCH FROM at - TIMESTAMP '2024-01-01')::DOUBLE PRECISION / 86400 + ln(weight) / ln(2)
+$$ LANGUAGE sql IMMUTABLE;
+
+-- log2(2^a + 2^b) without overflowing; the exponent is clamped since power() errors on underflow
+CREATE OR REPLACE FUNCTION hot_score_add(a DOUBLE PRECISION, b DOUBLE PRECISION) RETURNS DOUBLE PRECISION AS $$
+    SELECT GREATEST(a, b) + ln(1 + power(2, GREATEST(-60, -abs(a - b)))) / ln(2)
+$$ LANGUAGE sql IMMUTABLE;
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS hot_score DOUBLE PRECISION;
+
+-- Backfill from history: the question itself (weight 1), answers (2), upvotes (1)
+-- and the accepted answer (3, at the answer's time), summed in log space
+WITH events AS (
+    SELECT q.id AS question_id, hot_activity(1, q.created_at) AS x FROM questions q
+    UNION ALL
+    SELECT a.question_id, hot_activity(2, a.created_at) FROM answers a
+    UNION ALL
+    SELECT a.question_id, hot_activity(1, v.created_at)
+    FROM votes v JOIN answers a ON a.id = v.answer_id WHERE v.vote_type = 'upvote'
+    UNION ALL
+    SELECT a.question_id, hot_activity(3, a.created_at) FROM answers a WHERE a.is_accepted
+), scores AS (
+    SELECT question_id, MAX(x) + ln(SUM(power(2, GREATEST(-60, x - max_x)))) / ln(2) AS score
+    FROM (SELECT question_id, x, MAX(x) OVER (PARTITION BY question_id) AS max_x FROM events) e
+    GROUP BY question_id
+)
+UPDATE questions q SET hot_score = s.score FROM scores s WHERE q.id = s.question_id;
+
+ALTER TABLE questions ALTER COLUMN hot_score SET DEFAULT hot_activity(1, LOCALTIMESTAMP);
+ALTER TABLE questions ALTER COLUMN hot_score SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_question_hot ON questions(hot_score DESC);
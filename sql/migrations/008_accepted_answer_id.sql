@@ -0,0 +1,17 @@
+-- Accepted answers: questions.accepted_answer_id replaces answers.is_accepted as the
+-- record of which answer was accepted, so accepting one updates a single question
+-- row instead of every answer of the question. Answer reads derive is_accepted from it.
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS accepted_answer_id INT REFERENCES answers(id) ON DELETE SET NULL;
+
+-- Backfill from the old flag, keeping the latest accepted answer where several were flagged
+UPDATE questions q SET accepted_answer_id = a.id
+FROM (SELECT DISTINCT ON (question_id) id, question_id FROM answers
+      WHERE is_accepted ORDER BY question_id, created_at DESC, id DESC) a
+WHERE q.id = a.question_id;
+
+-- An answer can only be the accepted answer of one question
+CREATE UNIQUE INDEX IF NOT EXISTS idx_question_accepted_answer ON questions(accepted_answer_id)
+    WHERE accepted_answer_id IS NOT NULL;
+
+ALTER TABLE answers DROP COLUMN IF EXISTS is_accepted;
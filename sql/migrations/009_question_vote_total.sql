@@ -0,0 +1,11 @@
+-- Vote totals: questions.vote_total holds the sum of its answers' upvotes, raised by
+-- AnswerDAO in the same statement as each vote, so searches sorted by votes order by
+-- a column instead of summing the answers of every match.
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS vote_total INT NOT NULL DEFAULT 0;
+
+UPDATE questions q SET vote_total = v.total
+FROM (SELECT question_id, SUM(upvotes) AS total FROM answers GROUP BY question_id) v
+WHERE q.id = v.question_id AND q.vote_total <> v.total;
+
+CREATE INDEX IF NOT EXISTS idx_question_votes ON questions(vote_total DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Accepted answers must belong to their question: the key on accepted_answer_id alone
+-- let a question accept another question's answer. The composite key checks the pair
+-- against answers(id, question_id); deleting the answer still clears only
+-- accepted_answer_id (a column list on SET NULL needs PostgreSQL 15).
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_answer_id_question ON answers(id, question_id);
+
+ALTER TABLE questions DROP CONSTRAINT IF EXISTS questions_accepted_answer_id_fkey;
+ALTER TABLE questions DROP CONSTRAINT IF EXISTS questions_accepted_answer_fkey;
+ALTER TABLE questions ADD CONSTRAINT questions_accepted_answer_fkey
+    FOREIGN KEY (accepted_answer_id, id) REFERENCES answers(id, question_id)
+    ON DELETE SET NULL (accepted_answer_id);
+
+-- An answer has one question, so the key already keeps it accepted for at most one
+DROP INDEX IF EXISTS idx_question_accepted_answer;
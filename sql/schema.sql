@@ -1,8 +1,11 @@
 -- PeerQ Database Schema
 
 -- Drop tables if they exist (order matters for foreign key constraints)
+DROP TABLE IF EXISTS question_facets;
+DROP TABLE IF EXISTS question_tags;
+DROP TABLE IF EXISTS tags;
 DROP TABLE IF EXISTS votes;
-DROP TABLE IF EXISTS answers;
+DROP TABLE IF EXISTS answers CASCADE;  -- Also drops questions' accepted answer key
 DROP TABLE IF EXISTS questions;
 DROP TABLE IF EXISTS users;
 
@@ -17,20 +20,90 @@ CREATE TABLE users (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Hot feed scoring: hot_score is the log2 of a question's time-decayed activity,
+-- sum(weight * 2^(days since 2024-01-01)), so ordering by it equals ordering by
+-- activity decayed with a one-day half-life, at any moment
+CREATE OR REPLACE FUNCTION hot_activity(weight DOUBLE PRECISION, at TIMESTAMP) RETURNS DOUBLE PRECISION AS $$
+    SELECT EXTRACT(EPOCH FROM at - TIMESTAMP '2024-01-01')::DOUBLE PRECISION / 86400 + ln(weight) / ln(2)
+$$ LANGUAGE sql IMMUTABLE;
+
+-- log2(2^a + 2^b) without overflowing; the exponent is clamped since power() errors on underflow
+CREATE OR REPLACE FUNCTION hot_score_add(a DOUBLE PRECISION, b DOUBLE PRECISION) RETURNS DOUBLE PRECISION AS $$
+    SELECT GREATEST(a, b) + ln(1 + power(2, GREATEST(-60, -abs(a - b)))) / ln(2)
+$$ LANGUAGE sql IMMUTABLE;
+
 -- Create questions table
 CREATE TABLE questions (
     id SERIAL PRIMARY KEY,
     title VARCHAR(255) NOT NULL,
     body TEXT NOT NULL,
-    tags VARCHAR(255),
     user_id INT NOT NULL,
     is_solved BOOLEAN DEFAULT FALSE,
     category VARCHAR(50) NOT NULL,
     is_anonymous BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    answer_count INT NOT NULL DEFAULT 0,  -- Maintained by AnswerDAO alongside each answer insert
+    last_activity_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,  -- Creation time or latest answer
+    search_vector TSVECTOR,  -- Weighted full-text document, maintained by trigger
+    hot_score DOUBLE PRECISION NOT NULL DEFAULT hot_activity(1, LOCALTIMESTAMP),  -- Raised by answers, upvotes and accepts
+    vote_total INT NOT NULL DEFAULT 0,  -- Sum of the answers' upvotes, maintained by AnswerDAO
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Create tags table: each tag name stored once
+CREATE TABLE tags (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE  -- Trimmed and lower-cased
+);
+
+-- Create question_tags table linking questions to their tags
+CREATE TABLE question_tags (
+    question_id INT NOT NULL,
+    tag_id INT NOT NULL,
+    created_at TIMESTAMP NOT NULL,  -- Copy of the question's created_at, for tag pages in feed order
+    PRIMARY KEY (question_id, tag_id),
+    FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE,
+    FOREIGN KEY (tag_id) REFERENCES tags(id) ON DELETE CASCADE
+);
+
+-- Weighted full-text document of a question: title (A), tags (B) and body (C)
+CREATE OR REPLACE FUNCTION question_search_vector(q_id INT, q_title TEXT, q_body TEXT) RETURNS TSVECTOR AS $$
+    SELECT setweight(to_tsvector('english', coalesce(q_title, '')), 'A') ||
+           setweight(to_tsvector('english', coalesce((
+               SELECT string_agg(t.name, ' ') FROM question_tags qt JOIN tags t ON t.id = qt.tag_id
+               WHERE qt.question_id = q_id), '')), 'B') ||
+           setweight(to_tsvector('english', coalesce(q_body, '')), 'C')
+$$ LANGUAGE sql STABLE;
+
+-- Keep search_vector in step with the title and body...
+CREATE OR REPLACE FUNCTION questions_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := question_search_vector(NEW.id, NEW.title, NEW.body);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER questions_search_vector_trigger
+    BEFORE INSERT OR UPDATE OF title, body ON questions
+    FOR EACH ROW EXECUTE FUNCTION questions_search_vector_update();
+
+-- ...and with the tags, which are inserted after the question row
+CREATE OR REPLACE FUNCTION question_tags_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    UPDATE questions q SET search_vector = question_search_vector(q.id, q.title, q.body)
+    WHERE q.id IN (SELECT question_id FROM changed_tags);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER question_tags_insert_search_trigger
+    AFTER INSERT ON question_tags REFERENCING NEW TABLE AS changed_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION question_tags_search_vector_update();
+
+CREATE TRIGGER question_tags_delete_search_trigger
+    AFTER DELETE ON question_tags REFERENCING OLD TABLE AS changed_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION question_tags_search_vector_update();
+
 -- Create answers table
 CREATE TABLE answers (
     id SERIAL PRIMARY KEY,
@@ -38,13 +111,20 @@ CREATE TABLE answers (
     user_id INT NOT NULL,
     content TEXT NOT NULL,
     upvotes INT DEFAULT 0,
-    is_accepted BOOLEAN DEFAULT FALSE,
     is_anonymous BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- The accepted answer of each question, which must be one of its own answers; answers
+-- reference questions, so the key is added afterwards
+CREATE UNIQUE INDEX idx_answer_id_question ON answers(id, question_id);
+ALTER TABLE questions ADD COLUMN accepted_answer_id INT;
+ALTER TABLE questions ADD CONSTRAINT questions_accepted_answer_fkey
+    FOREIGN KEY (accepted_answer_id, id) REFERENCES answers(id, question_id)
+    ON DELETE SET NULL (accepted_answer_id);
+
 -- Create votes table
 CREATE TABLE votes (
     id SERIAL PRIMARY KEY,
@@ -57,6 +137,17 @@ CREATE TABLE votes (
     UNIQUE (answer_id, user_id)  -- Prevent duplicate votes from same user
 );
 
+-- Question counts per category and per tag, adjusted by the DAOs in the same
+-- transactions as question inserts, first answers and solves; reconciled periodically
+CREATE TABLE question_facets (
+    facet_type VARCHAR(10) NOT NULL CHECK (facet_type IN ('category', 'tag')),
+    facet_value VARCHAR(255) NOT NULL,
+    total INT NOT NULL DEFAULT 0,
+    unanswered INT NOT NULL DEFAULT 0,
+    solved INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (facet_type, facet_value)
+);
+
 -- Create an admin user (password: admin123)
 INSERT INTO users (name, email, password, reputation, is_admin) 
 VALUES ('Admin User', 'admin@college.edu', 'admin123', 100, TRUE);
@@ -68,7 +159,20 @@ VALUES ('Admin User', 'admin@college.edu', 'admin123', 100, TRUE);
 
 -- Add indexes for better performance
 CREATE INDEX idx_question_user ON questions(user_id);
-CREATE INDEX idx_question_category ON questions(category);
+-- Keyset pagination of the question feed, overall and per category
+CREATE INDEX idx_question_created ON questions(created_at DESC, id DESC);
+CREATE INDEX idx_question_category_created ON questions(category, created_at DESC, id DESC);
+-- Full-text search over search_vector
+CREATE INDEX idx_question_search ON questions USING GIN (search_vector);
+-- Partial indexes holding only unanswered questions
+CREATE INDEX idx_question_unanswered ON questions(created_at DESC, id DESC) WHERE answer_count = 0;
+CREATE INDEX idx_question_unanswered_category ON questions(category, created_at DESC, id DESC) WHERE answer_count = 0;
+-- Hot feed, loaded into memory at startup
+CREATE INDEX idx_question_hot ON questions(hot_score DESC);
+-- Searches sorted by votes
+CREATE INDEX idx_question_votes ON questions(vote_total DESC, id DESC);
+-- Tag pages, newest first
+CREATE INDEX idx_question_tags_tag_created ON question_tags(tag_id, created_at DESC, question_id DESC);
 CREATE INDEX idx_answer_question ON answers(question_id);
 CREATE INDEX idx_answer_user ON answers(user_id);
 CREATE INDEX idx_votes_answer ON votes(answer_id);
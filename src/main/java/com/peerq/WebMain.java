@@ -1,15 +1,31 @@
 package com.peerq;
 
+import com.peerq.dao.FacetDAO;
+import com.peerq.dao.QuestionDAO;
+import com.peerq.search.SearchIndex;
 import com.peerq.util.DBConnection;
+import com.peerq.util.DBExecutor;
+import com.peerq.util.MaintenanceScheduler;
+import com.peerq.util.PoolConfig;
 import com.peerq.web.AuthServlet;
+import com.peerq.web.HealthServlet;
+import com.peerq.web.MetricsServlet;
 import com.peerq.web.QuestionServlet;
+import com.peerq.web.ReadConsistencyFilter;
+import com.peerq.web.SearchServlet;
 import com.peerq.web.StaticFileServlet;
+import com.peerq.web.VirtualThreadPool;
 
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.DefaultServlet;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 
+import javax.servlet.DispatcherType;
+import java.util.EnumSet;
+
 /**
  * Main entry point for the PeerQ web application.
  */
@@ -22,18 +38,41 @@ public class WebMain {
      * @param args Command line arguments
      */
     public static void main(String[] args) {
-        // Initialize database connection
+        // Start warming up the connection pool; Jetty accepts traffic while it fills
         try {
-            // Test database connection
-            DBConnection.getConnection().close();
-            System.out.println("Database connection successful.");
+            DBConnection.startAsync();
         } catch (Exception e) {
-            System.err.println("Error connecting to database: " + e.getMessage());
+            System.err.println("Error configuring database: " + e.getMessage());
             System.exit(1);
         }
         
+        // Periodically fix answer counts that drifted from the answers table
+        QuestionDAO questionDAO = new QuestionDAO();
+        MaintenanceScheduler.schedule("answer-count-repair", () -> {
+            int repaired = questionDAO.repairAnswerCounts();
+            if (repaired > 0) {
+                System.out.println("Repaired answer counts of " + repaired + " questions.");
+            }
+        }, PoolConfig.getLongEnv("ANSWER_COUNT_REPAIR_INTERVAL_MS", 60 * 60 * 1000L));
+        
+        // Periodically recompute category and tag counts to correct any drift
+        FacetDAO facetDAO = new FacetDAO();
+        MaintenanceScheduler.schedule("facet-reconciliation", () -> {
+            int repaired = facetDAO.reconcileFacets();
+            if (repaired > 0) {
+                System.out.println("Reconciled " + repaired + " facet counts.");
+            }
+        }, PoolConfig.getLongEnv("FACET_RECONCILE_INTERVAL_MS", 60 * 60 * 1000L));
+        
+        // Rank the hottest questions in memory, refreshed to pick up other instances' activity
+        MaintenanceScheduler.schedule("hot-feed-reload", questionDAO::loadHotFeed,
+                PoolConfig.getLongEnv("HOT_FEED_RELOAD_INTERVAL_MS", 5 * 60 * 1000L));
+        
+        // Load the live search index from disk and catch it up in the background
+        SearchIndex.getInstance().startAsync(questionDAO);
+        
         // Create and configure the server
-        Server server = new Server(PORT);
+        Server server = createServer();
         
         // Create a servlet context
         ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
@@ -50,9 +89,15 @@ public class WebMain {
             context.setResourceBase(resourceBase);
         }
         
+        // Carry the read-your-writes window across requests of a session
+        context.addFilter(new FilterHolder(new ReadConsistencyFilter()), "/api/*", EnumSet.of(DispatcherType.REQUEST));
+        
         // Add servlets
         context.addServlet(new ServletHolder(new AuthServlet()), "/api/auth/*");
         context.addServlet(new ServletHolder(new QuestionServlet()), "/api/questions/*");
+        context.addServlet(new ServletHolder(new SearchServlet()), "/api/search/*");
+        context.addServlet(new ServletHolder(new MetricsServlet()), "/metrics");
+        context.addServlet(new ServletHolder(new HealthServlet()), "/health/*");
         
         // Add default servlet for static files
         ServletHolder defaultServlet = new ServletHolder("default", StaticFileServlet.class);
@@ -69,6 +114,8 @@ public class WebMain {
             
             // Add shutdown hook to close database connections
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                MaintenanceScheduler.shutdown();
+                SearchIndex.getInstance().flush();
                 DBConnection.closeAllConnections();
                 System.out.println("Application shutting down, closed database connections.");
             }));
@@ -79,4 +126,28 @@ public class WebMain {
             e.printStackTrace();
         }
     }
+    
+    /**
+     * Creates the server on Jetty's default thread pool, or on virtual threads when
+     * PEERQ_VIRTUAL_THREADS=true and the JVM supports them (Java 21+)
+     */
+    private static Server createServer() {
+        if (!DBExecutor.isVirtualThreadsRequested()) {
+            return new Server(PORT);
+        }
+        
+        VirtualThreadPool threadPool = VirtualThreadPool.create();
+        if (threadPool == null) {
+            System.err.println("Warning: PEERQ_VIRTUAL_THREADS is set but this JVM has no virtual threads "
+                    + "(Java 21+ required). Using platform threads.");
+            return new Server(PORT);
+        }
+        
+        Server server = new Server(threadPool);
+        ServerConnector connector = new ServerConnector(server);
+        connector.setPort(PORT);
+        server.addConnector(connector);
+        System.out.println("Handling requests on virtual threads");
+        return server;
+    }
 }
\ No newline at end of file
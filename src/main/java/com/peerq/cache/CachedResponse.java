@@ -0,0 +1,61 @@
+package com.peerq.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response body serialized once, as UTF-8 bytes and, when large enough to be
+ * worth it, gzip-compressed, so a cache hit is written without touching Gson or the
+ * model objects.
+ */
+public final class CachedResponse {
+    /** Bodies smaller than this are sent uncompressed */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final byte[] body;
+    private final byte[] gzipped; // null if the body is too small to compress
+
+    private CachedResponse(byte[] body, byte[] gzipped) {
+        this.body = body;
+        this.gzipped = gzipped;
+    }
+
+    /**
+     * Encodes and, if large enough, compresses a JSON document
+     *
+     * @param json The response body
+     * @return The encoded response
+     */
+    public static CachedResponse of(String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        return new CachedResponse(body, body.length >= GZIP_MIN_BYTES ? gzip(body) : null);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(body);
+        } catch (IOException e) {
+            // Only thrown by the underlying stream, which is in memory
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Gets the UTF-8 body
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the gzip-compressed body, or null if it is sent uncompressed
+     */
+    public byte[] getGzipped() {
+        return gzipped;
+    }
+}
@@ -0,0 +1,59 @@
+package com.peerq.cache;
+
+import java.util.Objects;
+
+/**
+ * The query parameters of a question list page, as its key in the list cache.
+ *
+ * Parameters are compared one by one, so values containing separators or the text
+ * "null" can't make two different requests share a cached page.
+ */
+public final class ListKey {
+    private final String category;
+    private final String tag;
+    private final String cursor;
+    private final int limit;
+    private final boolean unanswered;
+
+    /**
+     * @param category The category parameter, or null if absent
+     * @param tag The tag parameter, or null if absent
+     * @param cursor The cursor parameter, or null if absent
+     * @param limit The page size
+     * @param unanswered Whether the page lists only unanswered questions
+     */
+    public ListKey(String category, String tag, String cursor, int limit, boolean unanswered) {
+        this.category = category;
+        this.tag = tag;
+        this.cursor = cursor;
+        this.limit = limit;
+        this.unanswered = unanswered;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ListKey)) {
+            return false;
+        }
+        ListKey other = (ListKey) o;
+        return limit == other.limit
+                && unanswered == other.unanswered
+                && Objects.equals(category, other.category)
+                && Objects.equals(tag, other.tag)
+                && Objects.equals(cursor, other.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(category, tag, cursor, limit, unanswered);
+    }
+
+    @Override
+    public String toString() {
+        return "ListKey{category=" + category + ", tag=" + tag + ", cursor=" + cursor
+                + ", limit=" + limit + ", unanswered=" + unanswered + "}";
+    }
+}
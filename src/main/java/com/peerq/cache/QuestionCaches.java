@@ -0,0 +1,71 @@
+package com.peerq.cache;
+
+import com.peerq.util.PoolConfig;
+
+/**
+ * The application's question caches and the write events that invalidate them.
+ *
+ * Both caches hold serialized response bodies. The DAOs report each committed write
+ * that changes what a page shows: questionChanged() for new answers, accepted
+ * answers and solved questions, which change the question page and its summary in
+ * listings; answerUpvoted() for votes, which only the question page shows; and
+ * listingsChanged() for new questions and repaired counts. Cached values are also
+ * capped by a TTL, which bounds how long writes made by other application instances
+ * can go unseen. List pages change with every new question anywhere, so their TTL
+ * defaults to one second, which keeps them nearly current and still absorbs bursts
+ * of identical list requests. Misses for the same page share one load.
+ */
+public final class QuestionCaches {
+    private static final long TTL_MS = PoolConfig.getLongEnv("QUESTION_CACHE_TTL_MS", 30_000);
+
+    private static final TtlCache<Integer, CachedResponse> details = new TtlCache<>("question_detail",
+            (int) PoolConfig.getLongEnv("QUESTION_CACHE_SIZE", 1000), TTL_MS);
+
+    private static final TtlCache<ListKey, CachedResponse> lists = new TtlCache<>("question_list",
+            (int) PoolConfig.getLongEnv("QUESTION_LIST_CACHE_SIZE", 200),
+            PoolConfig.getLongEnv("QUESTION_LIST_CACHE_TTL_MS", 1_000));
+
+    private QuestionCaches() {
+    }
+
+    /**
+     * Cache of question pages (question plus answers) by question ID
+     */
+    public static TtlCache<Integer, CachedResponse> details() {
+        return details;
+    }
+
+    /**
+     * Cache of question list pages by their query parameters
+     */
+    public static TtlCache<ListKey, CachedResponse> lists() {
+        return lists;
+    }
+
+    /**
+     * Invalidates a question's page and every list page after a committed write that
+     * changes its answers or status
+     *
+     * @param questionId The ID of the question that changed
+     */
+    public static void questionChanged(int questionId) {
+        details.invalidate(questionId);
+        lists.invalidateAll();
+    }
+
+    /**
+     * Invalidates a question's page after a committed vote on one of its answers
+     *
+     * @param questionId The ID of the question whose answer was upvoted
+     */
+    public static void answerUpvoted(int questionId) {
+        details.invalidate(questionId);
+    }
+
+    /**
+     * Invalidates every list page after questions were added or their counts repaired
+     */
+    public static void listingsChanged() {
+        lists.invalidateAll();
+    }
+}
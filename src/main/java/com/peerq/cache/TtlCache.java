@@ -0,0 +1,291 @@
+package com.peerq.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, least-recently-used in-process cache whose entries expire a fixed
+ * time after they were loaded.
+ *
+ * Invalidating a key leaves a short-lived marker in its place. A value loaded while
+ * the key was being invalidated may reflect the data from before the write, so
+ * getOrLoad() stamps each load with a sequence number and refuses to store values
+ * whose load started before the key's latest invalidation. The marker also tells callers when the key last changed
+ * (see getInvalidatedAt), so they can read the reload from the primary database
+ * while a replica may still lag.
+ *
+ * getOrLoad() also coalesces concurrent misses: callers missing the same key while
+ * it is being loaded wait for that load instead of each querying the database,
+ * unless the key was invalidated after the load started.
+ *
+ * Every cache registers itself for the metrics endpoint.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class TtlCache<K, V> {
+    private static final List<TtlCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    private static final class Entry<V> {
+        final V value; // null for an invalidation marker
+        final long createdAt;
+        final long sequence; // Stamp of the load, or of the invalidation for a marker
+
+        Entry(V value, long createdAt, long sequence) {
+            this.value = value;
+            this.createdAt = createdAt;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class Flight<V> {
+        final long stamp;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Flight(long stamp) {
+            this.stamp = stamp;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMs;
+
+    // Guarded by this; iteration order is least recently used first
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sequence;
+    private long clearedSequence; // Values loaded before the last invalidateAll() are refused
+    private long clearedAt;
+    private final Map<K, Flight<V>> flights = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Creates and registers a cache
+     *
+     * @param name Name used in metrics
+     * @param maxSize Maximum number of entries, including invalidation markers
+     * @param ttlMs How long an entry is served after loading; 0 or less disables the cache
+     */
+    public TtlCache(String name, int maxSize, long ttlMs) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMs = ttlMs;
+        caches.add(this);
+    }
+
+    /**
+     * Gets every cache created, for the metrics endpoint
+     */
+    public static List<TtlCache<?, ?>> getCaches() {
+        return caches;
+    }
+
+    /**
+     * Checks whether the cache stores anything at all
+     */
+    public boolean isEnabled() {
+        return ttlMs > 0;
+    }
+
+    /**
+     * Gets a live value, or loads it, sharing one load among concurrent callers
+     *
+     * A caller that misses while another is loading the same key waits for that
+     * load's result, unless the key was invalidated after the load started. Loaded
+     * values are not stored if the key was invalidated after the load started.
+     *
+     * @param key The key
+     * @param loader Loads the value, or returns null (not cached) if there is none
+     * @return The value, or null if the loader found none
+     * @throws Exception What the loader threw, rethrown to every caller sharing the load
+     */
+    public V getOrLoad(K key, Callable<V> loader) throws Exception {
+        Flight<V> flight;
+        boolean leader = false;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.value != null && !isExpired(entry)) {
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+
+            flight = flights.get(key);
+            long changedAt = Math.max(clearedSequence, entry != null && entry.value == null ? entry.sequence : 0);
+            if (flight != null && flight.stamp >= changedAt) {
+                coalesced.increment();
+            } else {
+                flight = new Flight<>(sequence);
+                flights.put(key, flight);
+                leader = true;
+            }
+        }
+        return leader ? load(key, loader, flight) : await(flight);
+    }
+
+    private V load(K key, Callable<V> loader, Flight<V> flight) throws Exception {
+        try {
+            V value = loader.call();
+            if (value != null) {
+                put(key, value, flight.stamp);
+            }
+            flight.result.complete(value);
+            return value;
+        } catch (Throwable t) {
+            flight.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            synchronized (this) {
+                flights.remove(key, flight);
+            }
+        }
+    }
+
+    private V await(Flight<V> flight) throws Exception {
+        try {
+            return flight.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (Exception) cause;
+        }
+    }
+
+    /**
+     * Stores a loaded value, unless its key was invalidated or reloaded after the
+     * load started
+     *
+     * @param key The key
+     * @param value The value, not null
+     * @param stamp The cache's sequence number when the load started
+     * @return true if the value was stored
+     */
+    private synchronized boolean put(K key, V value, long stamp) {
+        if (!isEnabled()) {
+            return false;
+        }
+        if (stamp < clearedSequence) {
+            return false;
+        }
+        Entry<V> current = entries.get(key);
+        if (current != null && current.sequence > stamp && !isExpired(current)) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis(), ++sequence));
+        evictOverflow();
+        return true;
+    }
+
+    /**
+     * Drops a key's value and marks the key changed
+     */
+    public synchronized void invalidate(K key) {
+        // Recorded even when disabled, so loads started before the write aren't shared after it
+        invalidations.increment();
+        entries.put(key, new Entry<>(null, System.currentTimeMillis(), ++sequence));
+        evictOverflow();
+    }
+
+    /**
+     * Drops every entry, for writes whose effect on the cached keys is unknown
+     */
+    public synchronized void invalidateAll() {
+        invalidations.increment();
+        entries.clear();
+        clearedSequence = ++sequence;
+        clearedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets when a key was last invalidated, if that is recent enough to be remembered
+     *
+     * @return Epoch milliseconds of the invalidation, or null
+     */
+    public synchronized Long getInvalidatedAt(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            // Cleared since, and not reloaded yet
+            return clearedAt > 0 && System.currentTimeMillis() - clearedAt < ttlMs ? clearedAt : null;
+        }
+        if (entry.value != null || isExpired(entry)) {
+            return null;
+        }
+        return entry.createdAt;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return System.currentTimeMillis() - entry.createdAt >= ttlMs;
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            iterator.remove();
+            if (entry.value != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    // Metrics
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Gets the number of misses that waited for another caller's load instead of loading
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the share of lookups served from the cache since startup, 0 if there were none
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -1,5 +1,7 @@
 package com.peerq.dao;
 
+import com.peerq.cache.QuestionCaches;
+import com.peerq.feed.HotFeed;
 import com.peerq.model.Answer;
 import com.peerq.util.DBConnection;
 
@@ -16,22 +18,30 @@ import java.util.List;
  */
 public class AnswerDAO {
     
+    // Select list for answers a of question q, with the author's name from users u
+    private static final String ANSWER_COLUMNS = "a.id, a.question_id, a.user_id, a.content, a.upvotes, "
+            + "a.is_anonymous, a.created_at, COALESCE(a.id = q.accepted_answer_id, false) AS is_accepted, u.name AS user_name";
+    
+    private final FacetDAO facetDAO = new FacetDAO();
+    
     /**
      * Retrieves all answers for a specific question
      * 
      * @param questionId The ID of the question
      * @return List of answers for the question
+     * @throws SQLException If a database error occurs
      */
-    public List<Answer> getAnswersByQuestionId(int questionId) {
+    public List<Answer> getAnswersByQuestionId(int questionId) throws SQLException {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
         List<Answer> answers = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT a.*, u.name AS user_name FROM answers a " +
+            String sql = "SELECT " + ANSWER_COLUMNS + " FROM answers a " +
+                         "JOIN questions q ON q.id = a.question_id " +
                          "LEFT JOIN users u ON a.user_id = u.id " +
                          "WHERE a.question_id = ? " +
                          "ORDER BY a.upvotes DESC, a.created_at ASC";
@@ -47,18 +57,11 @@ public class AnswerDAO {
             
             return answers;
             
-        } catch (SQLException e) {
-            System.err.println("Error getting answers by question ID: " + e.getMessage());
-            return answers;
         } finally {
             // Close resources
-            try {
-                if (rs != null) rs.close();
-                if (pstmt != null) pstmt.close();
-                if (conn != null) DBConnection.releaseConnection(conn);
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
-            }
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) DBConnection.releaseConnection(conn);
         }
     }
     
@@ -70,94 +73,129 @@ public class AnswerDAO {
      * @throws SQLException If a database error occurs
      */
     public boolean createAnswer(Answer answer) throws SQLException {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
+        int answerId = insertAnswer(answer);
+        
+        if (answerId < 0) {
+            return false;
+        }
         
+        // Set the generated ID back to the answer object
+        answer.setId(answerId);
+        return true;
+    }
+    
+    /**
+     * Submits a new answer to a question
+     * 
+     * @param answer The Answer object to submit
+     * @return The ID of the newly submitted answer, or -1 if submission failed
+     */
+    public int submitAnswer(Answer answer) {
         try {
-            conn = DBConnection.getConnection();
-            
-            String sql = "INSERT INTO answers (question_id, user_id, content, upvotes, is_accepted, is_anonymous) " +
-                         "VALUES (?, ?, ?, ?, ?, ?)";
+            int answerId = insertAnswer(answer);
             
-            pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setInt(1, answer.getQuestionId());
-            pstmt.setInt(2, answer.getUserId());
-            pstmt.setString(3, answer.getContent());
-            pstmt.setInt(4, answer.getUpvotes());
-            pstmt.setBoolean(5, answer.isAccepted());
-            pstmt.setBoolean(6, answer.isAnonymous());
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                return false;
+            if (answerId < 0) {
+                throw new SQLException("Creating answer failed, no ID obtained.");
             }
             
-            rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                // Set the generated ID back to the answer object
-                answer.setId(rs.getInt(1));
-                return true;
-            } else {
-                return false;
-            }
+            return answerId;
             
-        } finally {
-            // Close resources
-            if (rs != null) rs.close();
-            if (pstmt != null) pstmt.close();
-            if (conn != null) DBConnection.releaseConnection(conn);
+        } catch (SQLException e) {
+            System.err.println("Error submitting answer: " + e.getMessage());
+            return -1;
         }
     }
     
     /**
-     * Submits a new answer to a question
+     * Inserts an answer and bumps its question's answer_count, last_activity_at and
+     * hot score in the same transaction, so listings can read the count without a subquery
      * 
-     * @param answer The Answer object to submit
-     * @return The ID of the newly submitted answer, or -1 if submission failed
+     * @param answer The Answer object to insert
+     * @return The ID of the new answer, or -1 if no row was inserted
+     * @throws SQLException If a database error occurs; the transaction is rolled back
      */
-    public int submitAnswer(Answer answer) {
+    private int insertAnswer(Answer answer) throws SQLException {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
         
         try {
             conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            String sql = "INSERT INTO answers (question_id, user_id, content, upvotes, is_accepted, is_anonymous) " +
-                         "VALUES (?, ?, ?, ?, ?, ?)";
+            String sql = "INSERT INTO answers (question_id, user_id, content, upvotes, is_anonymous) " +
+                         "VALUES (?, ?, ?, ?, ?)";
             
             pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             pstmt.setInt(1, answer.getQuestionId());
             pstmt.setInt(2, answer.getUserId());
             pstmt.setString(3, answer.getContent());
             pstmt.setInt(4, answer.getUpvotes());
-            pstmt.setBoolean(5, answer.isAccepted());
-            pstmt.setBoolean(6, answer.isAnonymous());
+            pstmt.setBoolean(5, answer.isAnonymous());
             
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows == 0) {
-                throw new SQLException("Creating answer failed, no rows affected.");
+                conn.rollback();
+                return -1;
             }
             
             rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
-            } else {
-                throw new SQLException("Creating answer failed, no ID obtained.");
+            if (!rs.next()) {
+                conn.rollback();
+                return -1;
             }
+            int answerId = rs.getInt(1);
+            
+            // Close the previous resources
+            rs.close();
+            pstmt.close();
+            
+            // Keep the question's denormalized counters in step with the insert
+            String countSql = "UPDATE questions SET answer_count = answer_count + 1, " +
+                              "last_activity_at = CURRENT_TIMESTAMP WHERE id = ?";
+            pstmt = conn.prepareStatement(countSql);
+            pstmt.setInt(1, answer.getQuestionId());
+            pstmt.executeUpdate();
+            
+            // Close the previous resource
+            pstmt.close();
+            
+            // The first answer takes the question out of its facets' unanswered counts
+            String questionSql = "SELECT q.answer_count, q.category, " + TagDAO.TAG_NAMES + " AS tags " +
+                                 "FROM questions q WHERE q.id = ?";
+            pstmt = conn.prepareStatement(questionSql);
+            pstmt.setInt(1, answer.getQuestionId());
+            rs = pstmt.executeQuery();
+            if (rs.next() && rs.getInt("answer_count") == 1) {
+                facetDAO.adjustCounts(conn, rs.getString("category"), TagDAO.readTags(rs, "tags"), 0, -1, 0);
+            }
+            
+            double hotScore = QuestionDAO.recordActivity(conn, answer.getQuestionId(), HotFeed.ANSWER_WEIGHT);
+            
+            conn.commit();
+            HotFeed.getInstance().update(answer.getQuestionId(), hotScore);
+            QuestionCaches.questionChanged(answer.getQuestionId());
+            return answerId;
             
         } catch (SQLException e) {
-            System.err.println("Error submitting answer: " + e.getMessage());
-            return -1;
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            throw e;
         } finally {
             // Close resources
             try {
                 if (rs != null) rs.close();
                 if (pstmt != null) pstmt.close();
-                if (conn != null) DBConnection.releaseConnection(conn);
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    DBConnection.releaseConnection(conn);
+                }
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
             }
@@ -167,9 +205,13 @@ public class AnswerDAO {
     /**
      * Upvotes an answer, incrementing its upvote count and recording the vote
      * 
+     * The vote, the upvote count, the author's reputation and the question's vote total
+     * and hot score are all changed by one statement, in one round trip. A repeated vote conflicts
+     * on votes(answer_id, user_id) and changes nothing.
+     * 
      * @param answerId The ID of the answer to upvote
      * @param userId The ID of the user doing the upvoting
-     * @return true if successful, false otherwise
+     * @return true if the vote counted, false if the user had already voted or it failed
      */
     public boolean upvoteAnswer(int answerId, int userId) {
         Connection conn = null;
@@ -178,84 +220,49 @@ public class AnswerDAO {
         
         try {
             conn = DBConnection.getConnection();
-            conn.setAutoCommit(false);
             
-            // Check if user has already voted on this answer
-            String checkSql = "SELECT id FROM votes WHERE answer_id = ? AND user_id = ?";
-            pstmt = conn.prepareStatement(checkSql);
+            String sql = "WITH vote AS (" +
+                         "  INSERT INTO votes (answer_id, user_id, vote_type) VALUES (?, ?, 'upvote') " +
+                         "  ON CONFLICT (answer_id, user_id) DO NOTHING RETURNING answer_id" +
+                         "), counted AS (" +
+                         "  UPDATE answers a SET upvotes = a.upvotes + 1 FROM vote " +
+                         "  WHERE a.id = vote.answer_id RETURNING a.user_id, a.question_id" +
+                         "), reputation AS (" +
+                         // +10 points for the answer's author
+                         "  UPDATE users u SET reputation = u.reputation + 10 FROM counted " +
+                         "  WHERE u.id = counted.user_id" +
+                         ") " +
+                         "UPDATE questions q SET vote_total = q.vote_total + 1, " + QuestionDAO.RAISE_HOT_SCORE +
+                         " FROM counted " +
+                         "WHERE q.id = counted.question_id RETURNING q.id, q.hot_score";
+            
+            pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, answerId);
             pstmt.setInt(2, userId);
-            rs = pstmt.executeQuery();
+            pstmt.setDouble(3, HotFeed.UPVOTE_WEIGHT);
+            // execute rather than executeQuery, so the pool records the write
+            pstmt.execute();
+            rs = pstmt.getResultSet();
             
-            if (rs.next()) {
+            if (!rs.next()) {
                 // User has already voted on this answer
-                conn.rollback();
                 return false;
             }
             
-            // Close the previous resources
-            rs.close();
-            pstmt.close();
-            
-            // Insert vote record
-            String voteSql = "INSERT INTO votes (answer_id, user_id, vote_type) VALUES (?, ?, 'upvote')";
-            pstmt = conn.prepareStatement(voteSql);
-            pstmt.setInt(1, answerId);
-            pstmt.setInt(2, userId);
-            pstmt.executeUpdate();
-            
-            // Close the previous resources
-            pstmt.close();
-            
-            // Update answer upvote count
-            String updateSql = "UPDATE answers SET upvotes = upvotes + 1 WHERE id = ?";
-            pstmt = conn.prepareStatement(updateSql);
-            pstmt.setInt(1, answerId);
-            pstmt.executeUpdate();
-            
-            // Get user ID of answer author to update their reputation
-            pstmt.close();
-            String getUserSql = "SELECT user_id FROM answers WHERE id = ?";
-            pstmt = conn.prepareStatement(getUserSql);
-            pstmt.setInt(1, answerId);
-            rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                int answerUserId = rs.getInt("user_id");
-                
-                // Close the previous resources
-                rs.close();
-                pstmt.close();
-                
-                // Update user reputation (give +10 points for upvote)
-                String updateRepSql = "UPDATE users SET reputation = reputation + 10 WHERE id = ?";
-                pstmt = conn.prepareStatement(updateRepSql);
-                pstmt.setInt(1, answerUserId);
-                pstmt.executeUpdate();
-            }
-            
-            conn.commit();
+            int questionId = rs.getInt("id");
+            HotFeed.getInstance().update(questionId, rs.getDouble("hot_score"));
+            QuestionCaches.answerUpvoted(questionId);
             return true;
             
         } catch (SQLException e) {
             System.err.println("Error upvoting answer: " + e.getMessage());
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException ex) {
-                System.err.println("Error rolling back transaction: " + ex.getMessage());
-            }
             return false;
         } finally {
             // Close resources
             try {
                 if (rs != null) rs.close();
                 if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    DBConnection.releaseConnection(conn);
-                }
+                if (conn != null) DBConnection.releaseConnection(conn);
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
             }
@@ -265,6 +272,12 @@ public class AnswerDAO {
     /**
      * Marks an answer as accepted
      * 
+     * One statement records the answer as its question's accepted_answer_id, solves
+     * the question (counting it as solved in its facets, as solveQuestion does), raises
+     * its hot score and gives the answer's author +15 reputation. Locking the question
+     * row first serializes concurrent accepts, and accepting the answer that is already
+     * accepted changes nothing, so reputation is never given twice for it.
+     * 
      * @param answerId The ID of the answer to mark as accepted
      * @return true if successful, false otherwise
      */
@@ -275,81 +288,61 @@ public class AnswerDAO {
         
         try {
             conn = DBConnection.getConnection();
-            conn.setAutoCommit(false);
             
-            // Get question ID for this answer
-            String getQuestionSql = "SELECT question_id, user_id FROM answers WHERE id = ?";
-            pstmt = conn.prepareStatement(getQuestionSql);
+            String sql = "WITH previous AS (" +
+                         "  SELECT q.id, q.accepted_answer_id, q.is_solved, q.category, a.id AS answer_id " +
+                         "  FROM answers a JOIN questions q ON q.id = a.question_id " +
+                         "  WHERE a.id = ? FOR UPDATE OF q" +
+                         "), accepted AS (" +
+                         "  UPDATE questions q SET accepted_answer_id = p.answer_id, is_solved = true, " +
+                         QuestionDAO.RAISE_HOT_SCORE + " FROM previous p " +
+                         "  WHERE q.id = p.id AND p.accepted_answer_id IS DISTINCT FROM p.answer_id " +
+                         "  RETURNING q.hot_score" +
+                         "), reputation AS (" +
+                         "  UPDATE users u SET reputation = u.reputation + 15 FROM answers a, previous p " +
+                         "  WHERE a.id = p.answer_id AND u.id = a.user_id AND EXISTS (SELECT 1 FROM accepted)" +
+                         "), solved AS (" +
+                         // Category first, then tags by name, the order FacetDAO.adjustCounts locks them in
+                         "  INSERT INTO question_facets (facet_type, facet_value, total, unanswered, solved) " +
+                         "  SELECT f.facet_type, f.facet_value, 0, 0, 1 FROM previous p CROSS JOIN LATERAL (" +
+                         "    SELECT '" + FacetDAO.CATEGORY + "' AS facet_type, p.category AS facet_value " +
+                         "    UNION ALL SELECT '" + FacetDAO.TAG + "', t.name FROM question_tags qt " +
+                         "    JOIN tags t ON t.id = qt.tag_id WHERE qt.question_id = p.id" +
+                         "  ) f WHERE NOT p.is_solved AND EXISTS (SELECT 1 FROM accepted) " +
+                         "  ORDER BY f.facet_type, f.facet_value COLLATE \"C\" " +
+                         "  ON CONFLICT (facet_type, facet_value) DO UPDATE SET solved = question_facets.solved + 1" +
+                         ") " +
+                         "SELECT p.id, (SELECT hot_score FROM accepted) AS hot_score FROM previous p";
+            
+            pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, answerId);
-            rs = pstmt.executeQuery();
+            pstmt.setDouble(2, HotFeed.ACCEPT_WEIGHT);
+            // execute rather than executeQuery, so the pool records the write
+            pstmt.execute();
+            rs = pstmt.getResultSet();
             
             if (!rs.next()) {
-                conn.rollback();
+                // No such answer
                 return false;
             }
             
-            int questionId = rs.getInt("question_id");
-            int answerUserId = rs.getInt("user_id");
-            
-            // Close the previous resources
-            rs.close();
-            pstmt.close();
-            
-            // Unmark any previously accepted answers for this question
-            String unmarkSql = "UPDATE answers SET is_accepted = false WHERE question_id = ?";
-            pstmt = conn.prepareStatement(unmarkSql);
-            pstmt.setInt(1, questionId);
-            pstmt.executeUpdate();
-            
-            // Close the previous resource
-            pstmt.close();
-            
-            // Mark the new accepted answer
-            String markSql = "UPDATE answers SET is_accepted = true WHERE id = ?";
-            pstmt = conn.prepareStatement(markSql);
-            pstmt.setInt(1, answerId);
-            pstmt.executeUpdate();
-            
-            // Close the previous resource
-            pstmt.close();
-            
-            // Mark the question as solved
-            String solveSql = "UPDATE questions SET is_solved = true WHERE id = ?";
-            pstmt = conn.prepareStatement(solveSql);
-            pstmt.setInt(1, questionId);
-            pstmt.executeUpdate();
-            
-            // Close the previous resource
-            pstmt.close();
-            
-            // Update user reputation (give +15 points for accepted answer)
-            String updateRepSql = "UPDATE users SET reputation = reputation + 15 WHERE id = ?";
-            pstmt = conn.prepareStatement(updateRepSql);
-            pstmt.setInt(1, answerUserId);
-            pstmt.executeUpdate();
-            
-            conn.commit();
+            int questionId = rs.getInt("id");
+            double hotScore = rs.getDouble("hot_score");
+            if (!rs.wasNull()) {
+                HotFeed.getInstance().update(questionId, hotScore);
+                QuestionCaches.questionChanged(questionId);
+            }
             return true;
             
         } catch (SQLException e) {
             System.err.println("Error marking answer as accepted: " + e.getMessage());
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException ex) {
-                System.err.println("Error rolling back transaction: " + ex.getMessage());
-            }
             return false;
         } finally {
             // Close resources
             try {
                 if (rs != null) rs.close();
                 if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    DBConnection.releaseConnection(conn);
-                }
+                if (conn != null) DBConnection.releaseConnection(conn);
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
             }
@@ -368,9 +361,10 @@ public class AnswerDAO {
         ResultSet rs = null;
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT a.*, u.name AS user_name FROM answers a " +
+            String sql = "SELECT " + ANSWER_COLUMNS + " FROM answers a " +
+                         "JOIN questions q ON q.id = a.question_id " +
                          "LEFT JOIN users u ON a.user_id = u.id " +
                          "WHERE a.id = ?";
             
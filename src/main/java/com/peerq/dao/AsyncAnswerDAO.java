@@ -0,0 +1,93 @@
+package com.peerq.dao;
+
+import com.peerq.model.Answer;
+import com.peerq.util.DBExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over {@link AnswerDAO}.
+ * Each call runs on the shared {@link DBExecutor} and returns a CompletableFuture,
+ * so callers can run independent queries in parallel or keep a UI thread responsive.
+ */
+public class AsyncAnswerDAO {
+    private final AnswerDAO answerDAO;
+    
+    /**
+     * Creates a facade over a new AnswerDAO
+     */
+    public AsyncAnswerDAO() {
+        this(new AnswerDAO());
+    }
+    
+    /**
+     * Creates a facade over an existing AnswerDAO
+     * 
+     * @param answerDAO The DAO to delegate to
+     */
+    public AsyncAnswerDAO(AnswerDAO answerDAO) {
+        this.answerDAO = answerDAO;
+    }
+    
+    /**
+     * Retrieves all answers for a specific question
+     * 
+     * @param questionId The ID of the question
+     * @return future completed with the answers for the question
+     */
+    public CompletableFuture<List<Answer>> getAnswersByQuestionId(int questionId) {
+        return DBExecutor.supplyAsync(() -> answerDAO.getAnswersByQuestionId(questionId));
+    }
+    
+    /**
+     * Creates a new answer in the database
+     * 
+     * @param answer The Answer object to create
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> createAnswer(Answer answer) {
+        return DBExecutor.supplyAsync(() -> answerDAO.createAnswer(answer));
+    }
+    
+    /**
+     * Submits a new answer to a question
+     * 
+     * @param answer The Answer object to submit
+     * @return future completed with the new answer ID, or -1 if submission failed
+     */
+    public CompletableFuture<Integer> submitAnswer(Answer answer) {
+        return DBExecutor.supplyAsync(() -> answerDAO.submitAnswer(answer));
+    }
+    
+    /**
+     * Upvotes an answer, incrementing its upvote count and recording the vote
+     * 
+     * @param answerId The ID of the answer to upvote
+     * @param userId The ID of the user doing the upvoting
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> upvoteAnswer(int answerId, int userId) {
+        return DBExecutor.supplyAsync(() -> answerDAO.upvoteAnswer(answerId, userId));
+    }
+    
+    /**
+     * Marks an answer as accepted
+     * 
+     * @param answerId The ID of the answer to mark as accepted
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> markAnswerAsAccepted(int answerId) {
+        return DBExecutor.supplyAsync(() -> answerDAO.markAnswerAsAccepted(answerId));
+    }
+    
+    /**
+     * Get an answer by its ID
+     * 
+     * @param answerId The ID of the answer to retrieve
+     * @return future completed with the answer, or null if not found
+     */
+    public CompletableFuture<Answer> getAnswerById(int answerId) {
+        return DBExecutor.supplyAsync(() -> answerDAO.getAnswerById(answerId));
+    }
+}
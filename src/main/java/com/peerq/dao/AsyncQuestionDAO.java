@@ -0,0 +1,171 @@
+package com.peerq.dao;
+
+import com.peerq.model.Question;
+import com.peerq.model.QuestionPage;
+import com.peerq.model.QuestionSearch;
+import com.peerq.model.QuestionSummary;
+import com.peerq.util.DBExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over {@link QuestionDAO}.
+ * Each call runs on the shared {@link DBExecutor} and returns a CompletableFuture,
+ * so callers can run independent queries in parallel or keep a UI thread responsive.
+ */
+public class AsyncQuestionDAO {
+    private final QuestionDAO questionDAO;
+    
+    /**
+     * Creates a facade over a new QuestionDAO
+     */
+    public AsyncQuestionDAO() {
+        this(new QuestionDAO());
+    }
+    
+    /**
+     * Creates a facade over an existing QuestionDAO
+     * 
+     * @param questionDAO The DAO to delegate to
+     */
+    public AsyncQuestionDAO(QuestionDAO questionDAO) {
+        this.questionDAO = questionDAO;
+    }
+    
+    /**
+     * Creates a new question in the database
+     * 
+     * @param question The Question object to create
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> createQuestion(Question question) {
+        return DBExecutor.supplyAsync(() -> questionDAO.createQuestion(question));
+    }
+    
+    /**
+     * Adds a new question to the database
+     * 
+     * @param question The Question object to add
+     * @return future completed with the new question ID, or -1 if the operation failed
+     */
+    public CompletableFuture<Integer> addQuestion(Question question) {
+        return DBExecutor.supplyAsync(() -> questionDAO.addQuestion(question));
+    }
+    
+    /**
+     * Retrieves all questions from the database, with user names
+     * 
+     * @return future completed with the list of all questions
+     */
+    public CompletableFuture<List<QuestionSummary>> getAllQuestions() {
+        return DBExecutor.supplyAsync(() -> questionDAO.getAllQuestions());
+    }
+    
+    /**
+     * Retrieves one page of questions, newest first, optionally filtered by category
+     * 
+     * @param category The category to filter by, or null for all questions
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return future completed with the page of questions
+     */
+    public CompletableFuture<QuestionPage> getQuestionsPage(String category, String cursor, int limit) {
+        return DBExecutor.supplyAsync(() -> questionDAO.getQuestionsPage(category, cursor, limit));
+    }
+    
+    /**
+     * Retrieves one page of unanswered questions, newest first, optionally filtered by category
+     * 
+     * @param category The category to filter by, or null for all unanswered questions
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return future completed with the page of unanswered questions
+     */
+    public CompletableFuture<QuestionPage> getUnansweredQuestionsPage(String category, String cursor, int limit) {
+        return DBExecutor.supplyAsync(() -> questionDAO.getUnansweredQuestionsPage(category, cursor, limit));
+    }
+    
+    /**
+     * Retrieves one page of full-text search results, best match first
+     * 
+     * @param query The search text
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return future completed with the page of matching questions
+     */
+    public CompletableFuture<QuestionPage> searchQuestionsPage(String query, String cursor, int limit) {
+        return DBExecutor.supplyAsync(() -> questionDAO.searchQuestionsPage(query, cursor, limit));
+    }
+    
+    /**
+     * Retrieves one page of questions matching a keyword query and filters
+     * 
+     * @param search The search criteria
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return future completed with the page of matching questions
+     */
+    public CompletableFuture<QuestionPage> searchQuestionsPage(QuestionSearch search, String cursor, int limit) {
+        return DBExecutor.supplyAsync(() -> questionDAO.searchQuestionsPage(search, cursor, limit));
+    }
+    
+    /**
+     * Retrieves questions posted by a specific user
+     * 
+     * @param userId The ID of the user whose questions to retrieve
+     * @return future completed with the user's questions
+     */
+    public CompletableFuture<List<QuestionSummary>> getQuestionsByUserId(int userId) {
+        return DBExecutor.supplyAsync(() -> questionDAO.getQuestionsByUserId(userId));
+    }
+    
+    /**
+     * Retrieves all unanswered questions from the database
+     * 
+     * @return future completed with the unanswered questions
+     */
+    public CompletableFuture<List<QuestionSummary>> getUnansweredQuestions() {
+        return DBExecutor.supplyAsync(() -> questionDAO.getUnansweredQuestions());
+    }
+    
+    /**
+     * Gets a question by its ID
+     * 
+     * @param questionId The ID of the question to retrieve
+     * @return future completed with the question, or null if not found
+     */
+    public CompletableFuture<Question> getQuestionById(int questionId) {
+        return DBExecutor.supplyAsync(() -> questionDAO.getQuestionById(questionId));
+    }
+    
+    /**
+     * Marks a question as solved
+     * 
+     * @param questionId The ID of the question to mark as solved
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> markQuestionAsSolved(int questionId) {
+        return DBExecutor.supplyAsync(() -> questionDAO.markQuestionAsSolved(questionId));
+    }
+    
+    /**
+     * Retrieves questions by category
+     * 
+     * @param category The category to filter by
+     * @return future completed with the questions in the category
+     */
+    public CompletableFuture<List<QuestionSummary>> getQuestionsByCategory(String category) {
+        return DBExecutor.supplyAsync(() -> questionDAO.getQuestionsByCategory(category));
+    }
+    
+    /**
+     * Search questions by keyword in title, body, or tags
+     * 
+     * @param keyword The search keyword
+     * @return future completed with the matching questions
+     */
+    public CompletableFuture<List<QuestionSummary>> searchQuestions(String keyword) {
+        return DBExecutor.supplyAsync(() -> questionDAO.searchQuestions(keyword));
+    }
+}
@@ -0,0 +1,114 @@
+package com.peerq.dao;
+
+import com.peerq.model.User;
+import com.peerq.util.DBExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over {@link UserDAO}.
+ * Each call runs on the shared {@link DBExecutor} and returns a CompletableFuture,
+ * so callers can run independent queries in parallel or keep a UI thread responsive.
+ */
+public class AsyncUserDAO {
+    private final UserDAO userDAO;
+    
+    /**
+     * Creates a facade over a new UserDAO
+     */
+    public AsyncUserDAO() {
+        this(new UserDAO());
+    }
+    
+    /**
+     * Creates a facade over an existing UserDAO
+     * 
+     * @param userDAO The DAO to delegate to
+     */
+    public AsyncUserDAO(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+    
+    /**
+     * Registers a new user in the database
+     * 
+     * @param user The User object to register
+     * @return future completed with the new user ID, or -1 if registration failed
+     */
+    public CompletableFuture<Integer> registerUser(User user) {
+        return DBExecutor.supplyAsync(() -> userDAO.registerUser(user));
+    }
+    
+    /**
+     * Validates user login credentials
+     * 
+     * @param email User's email
+     * @param password User's password
+     * @return future completed with the user if login is successful, null otherwise
+     */
+    public CompletableFuture<User> validateLogin(String email, String password) {
+        return DBExecutor.supplyAsync(() -> userDAO.validateLogin(email, password));
+    }
+    
+    /**
+     * Retrieves a user by their ID
+     * 
+     * @param id The user ID to look up
+     * @return future completed with the user, or null if not found
+     */
+    public CompletableFuture<User> getUserById(int id) {
+        return DBExecutor.supplyAsync(() -> userDAO.getUserById(id));
+    }
+    
+    /**
+     * Updates a user's reputation score
+     * 
+     * @param userId User ID
+     * @param reputationChange Amount to change reputation by (positive or negative)
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> updateReputation(int userId, int reputationChange) {
+        return DBExecutor.supplyAsync(() -> userDAO.updateReputation(userId, reputationChange));
+    }
+    
+    /**
+     * Retrieves all users from the database
+     * 
+     * @return future completed with the list of all users
+     */
+    public CompletableFuture<List<User>> getAllUsers() {
+        return DBExecutor.supplyAsync(() -> userDAO.getAllUsers());
+    }
+    
+    /**
+     * Authenticates a user with email and password
+     * 
+     * @param email User's email
+     * @param password User's password
+     * @return future completed with the user if authentication succeeded, null otherwise
+     */
+    public CompletableFuture<User> authenticateUser(String email, String password) {
+        return DBExecutor.supplyAsync(() -> userDAO.authenticateUser(email, password));
+    }
+    
+    /**
+     * Retrieve a user by their email address
+     * 
+     * @param email The email to look up
+     * @return future completed with the user, or null if not found
+     */
+    public CompletableFuture<User> getUserByEmail(String email) {
+        return DBExecutor.supplyAsync(() -> userDAO.getUserByEmail(email));
+    }
+    
+    /**
+     * Creates a new user in the database
+     * 
+     * @param user The User object to create
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> createUser(User user) {
+        return DBExecutor.supplyAsync(() -> userDAO.createUser(user));
+    }
+}
@@ -0,0 +1,74 @@
+package com.peerq.dao;
+
+import com.peerq.model.Vote;
+import com.peerq.util.DBExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over {@link VoteDAO}.
+ * Each call runs on the shared {@link DBExecutor} and returns a CompletableFuture,
+ * so callers can run independent queries in parallel or keep a UI thread responsive.
+ */
+public class AsyncVoteDAO {
+    private final VoteDAO voteDAO;
+    
+    /**
+     * Creates a facade over a new VoteDAO
+     */
+    public AsyncVoteDAO() {
+        this(new VoteDAO());
+    }
+    
+    /**
+     * Creates a facade over an existing VoteDAO
+     * 
+     * @param voteDAO The DAO to delegate to
+     */
+    public AsyncVoteDAO(VoteDAO voteDAO) {
+        this.voteDAO = voteDAO;
+    }
+    
+    /**
+     * Adds a vote to an answer
+     * 
+     * @param vote The Vote object to add
+     * @return future completed with the vote ID, or -1 if the operation failed
+     */
+    public CompletableFuture<Integer> addVote(Vote vote) {
+        return DBExecutor.supplyAsync(() -> voteDAO.addVote(vote));
+    }
+    
+    /**
+     * Checks if a user has already voted on a specific answer
+     * 
+     * @param answerId The ID of the answer
+     * @param userId The ID of the user
+     * @return future completed with true if the user has already voted
+     */
+    public CompletableFuture<Boolean> hasUserVoted(int answerId, int userId) {
+        return DBExecutor.supplyAsync(() -> voteDAO.hasUserVoted(answerId, userId));
+    }
+    
+    /**
+     * Removes a vote from an answer
+     * 
+     * @param answerId The ID of the answer
+     * @param userId The ID of the user
+     * @return future completed with true if successful
+     */
+    public CompletableFuture<Boolean> removeVote(int answerId, int userId) {
+        return DBExecutor.supplyAsync(() -> voteDAO.removeVote(answerId, userId));
+    }
+    
+    /**
+     * Gets all votes for a specific answer
+     * 
+     * @param answerId The ID of the answer
+     * @return future completed with the votes for the answer
+     */
+    public CompletableFuture<List<Vote>> getVotesByAnswerId(int answerId) {
+        return DBExecutor.supplyAsync(() -> voteDAO.getVotesByAnswerId(answerId));
+    }
+}
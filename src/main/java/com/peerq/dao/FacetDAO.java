@@ -0,0 +1,223 @@
+package com.peerq.dao;
+
+import com.peerq.model.FacetCount;
+import com.peerq.model.FacetSnapshot;
+import com.peerq.util.DBConnection;
+import com.peerq.util.PoolConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Data Access Object for the per-category and per-tag question counts in question_facets.
+ *
+ * The counts are adjusted by QuestionDAO and AnswerDAO inside the transactions that
+ * create questions, add first answers and solve questions. Reads are served from an
+ * in-memory snapshot reloaded at most every FACET_SNAPSHOT_TTL_MS (default 5000), and
+ * reconcileFacets() recomputes the table from the questions to correct any drift.
+ */
+public class FacetDAO {
+    static final String CATEGORY = "category";
+    static final String TAG = "tag";
+
+    private static final long SNAPSHOT_TTL_MS = PoolConfig.getLongEnv("FACET_SNAPSHOT_TTL_MS", 5_000);
+
+    private static volatile FacetSnapshot snapshot;
+    private static final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * Adjusts the counts of a question's category and each of its tags, as part of the
+     * caller's transaction
+     *
+     * Rows are locked in a fixed order (category, then tags alphabetically), so
+     * concurrent transactions touching the same facets cannot deadlock.
+     *
+     * @param conn The connection of the caller's open transaction
+     * @param category The question's category
+     * @param tags The question's tag names
+     * @param total Change in the total count
+     * @param unanswered Change in the unanswered count
+     * @param solved Change in the solved count
+     * @throws SQLException If a database error occurs
+     */
+    void adjustCounts(Connection conn, String category, Collection<String> tags, int total, int unanswered, int solved)
+            throws SQLException {
+        PreparedStatement pstmt = null;
+
+        try {
+            String sql = "INSERT INTO question_facets (facet_type, facet_value, total, unanswered, solved) " +
+                         "VALUES (?, ?, ?, ?, ?) " +
+                         "ON CONFLICT (facet_type, facet_value) DO UPDATE SET " +
+                         "total = question_facets.total + EXCLUDED.total, " +
+                         "unanswered = question_facets.unanswered + EXCLUDED.unanswered, " +
+                         "solved = question_facets.solved + EXCLUDED.solved";
+
+            pstmt = conn.prepareStatement(sql);
+            if (category != null && !category.isEmpty()) {
+                addAdjustment(pstmt, CATEGORY, category, total, unanswered, solved);
+            }
+            for (String tag : new TreeSet<>(tags)) {
+                addAdjustment(pstmt, TAG, tag, total, unanswered, solved);
+            }
+            pstmt.executeBatch();
+
+        } finally {
+            if (pstmt != null) pstmt.close();
+        }
+    }
+
+    private static void addAdjustment(PreparedStatement pstmt, String type, String value,
+                                      int total, int unanswered, int solved) throws SQLException {
+        pstmt.setString(1, type);
+        pstmt.setString(2, value);
+        pstmt.setInt(3, total);
+        pstmt.setInt(4, unanswered);
+        pstmt.setInt(5, solved);
+        pstmt.addBatch();
+    }
+
+    /**
+     * Gets the current counts from the in-memory snapshot
+     *
+     * An expired snapshot is reloaded by one caller while the others keep reading the
+     * previous one, so page views never queue up behind the reload.
+     *
+     * @return The snapshot, at most FACET_SNAPSHOT_TTL_MS old unless a reload failed
+     * @throws SQLException If no snapshot has been loaded yet and loading it fails
+     */
+    public FacetSnapshot getFacets() throws SQLException {
+        FacetSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (FacetDAO.class) {
+                if (snapshot == null) {
+                    snapshot = loadFacets();
+                }
+                return snapshot;
+            }
+        }
+
+        if (System.currentTimeMillis() - current.getLoadedAt() >= SNAPSHOT_TTL_MS
+                && refreshing.compareAndSet(false, true)) {
+            try {
+                snapshot = loadFacets();
+            } catch (SQLException e) {
+                System.err.println("Error refreshing facet counts, serving previous snapshot: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads all facet counts from the database
+     *
+     * @return A new snapshot
+     * @throws SQLException If a database error occurs
+     */
+    private FacetSnapshot loadFacets() throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<FacetCount> categories = new ArrayList<>();
+        List<FacetCount> tags = new ArrayList<>();
+
+        try {
+            conn = DBConnection.getReadConnection();
+
+            String sql = "SELECT facet_type, facet_value, total, unanswered, solved " +
+                         "FROM question_facets WHERE total > 0 " +
+                         "ORDER BY total DESC, facet_value";
+
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                FacetCount count = new FacetCount(rs.getString("facet_value"), rs.getInt("total"),
+                        rs.getInt("unanswered"), rs.getInt("solved"));
+                if (CATEGORY.equals(rs.getString("facet_type"))) {
+                    categories.add(count);
+                } else {
+                    tags.add(count);
+                }
+            }
+
+            return new FacetSnapshot(categories, tags, System.currentTimeMillis());
+
+        } finally {
+            // Close resources
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) DBConnection.releaseConnection(conn);
+        }
+    }
+
+    /**
+     * Recomputes every facet count from the questions table and corrects the rows
+     * that differ, including rows for values no question uses any more
+     *
+     * A count adjusted by a transaction that commits while this runs may be overwritten
+     * with the value from just before it; the next run corrects that.
+     *
+     * @return The number of facet rows corrected, or -1 if reconciliation failed
+     */
+    public int reconcileFacets() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBConnection.getConnection();
+
+            String sql = "WITH actual AS (" +
+                         "  SELECT '" + CATEGORY + "' AS facet_type, q.category AS facet_value, COUNT(*) AS total, " +
+                         "         COUNT(*) FILTER (WHERE q.answer_count = 0) AS unanswered, " +
+                         "         COUNT(*) FILTER (WHERE q.is_solved) AS solved " +
+                         "  FROM questions q GROUP BY q.category " +
+                         "  UNION ALL " +
+                         "  SELECT '" + TAG + "', t.name, COUNT(*), " +
+                         "         COUNT(*) FILTER (WHERE q.answer_count = 0), " +
+                         "         COUNT(*) FILTER (WHERE q.is_solved) " +
+                         "  FROM question_tags qt JOIN tags t ON t.id = qt.tag_id " +
+                         "  JOIN questions q ON q.id = qt.question_id GROUP BY t.name" +
+                         "), corrected AS (" +
+                         "  INSERT INTO question_facets (facet_type, facet_value, total, unanswered, solved) " +
+                         "  SELECT facet_type, facet_value, total, unanswered, solved FROM actual " +
+                         "  ON CONFLICT (facet_type, facet_value) DO UPDATE SET " +
+                         "    total = EXCLUDED.total, unanswered = EXCLUDED.unanswered, solved = EXCLUDED.solved " +
+                         "  WHERE (question_facets.total, question_facets.unanswered, question_facets.solved) " +
+                         "    IS DISTINCT FROM (EXCLUDED.total, EXCLUDED.unanswered, EXCLUDED.solved) " +
+                         "  RETURNING 1" +
+                         "), removed AS (" +
+                         "  DELETE FROM question_facets f WHERE NOT EXISTS (" +
+                         "    SELECT 1 FROM actual a WHERE a.facet_type = f.facet_type AND a.facet_value = f.facet_value) " +
+                         "  RETURNING 1" +
+                         ") " +
+                         "SELECT (SELECT COUNT(*) FROM corrected) + (SELECT COUNT(*) FROM removed) AS repaired";
+
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt("repaired") : 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error reconciling facet counts: " + e.getMessage());
+            return -1;
+        } finally {
+            // Close resources
+            try {
+                if (rs != null) rs.close();
+                if (pstmt != null) pstmt.close();
+                if (conn != null) DBConnection.releaseConnection(conn);
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
+        }
+    }
+}
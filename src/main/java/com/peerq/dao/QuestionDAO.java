@@ -1,21 +1,91 @@
 package com.peerq.dao;
 
+import com.peerq.cache.QuestionCaches;
+import com.peerq.feed.HotFeed;
 import com.peerq.model.Question;
+import com.peerq.model.QuestionPage;
+import com.peerq.model.QuestionSearch;
+import com.peerq.model.QuestionSummary;
+import com.peerq.search.SearchIndex;
 import com.peerq.util.DBConnection;
+import com.peerq.util.PoolConfig;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Locale;
 
 /**
  * Data Access Object for Question-related database operations.
  */
 public class QuestionDAO {
     
+    // Explicit list so queries don't drag the search_vector column along
+    private static final String QUESTION_COLUMNS = "q.id, q.title, q.body, " + TagDAO.TAG_NAMES + " AS tags, "
+            + "q.user_id, q.is_solved, q.category, q.is_anonymous, q.created_at, q.answer_count, q.last_activity_at";
+    
+    // Columns for list views: only the start of the body is read, and shortened to a preview in Java
+    private static final String SUMMARY_COLUMNS = "q.id, q.title, LEFT(q.body, " + (QuestionSummary.PREVIEW_LENGTH + 1)
+            + ") AS preview, " + TagDAO.TAG_NAMES + " AS tags, q.user_id, q.is_solved, q.category, q.is_anonymous, "
+            + "q.created_at, "
+            + "q.answer_count, q.last_activity_at";
+    
+    // Predicate of the partial indexes on unanswered questions (sql/migrations/003)
+    static final String UNANSWERED_PREDICATE = "answer_count = 0";
+    
+    // Text search configuration used by the search_vector trigger
+    private static final String SEARCH_CONFIG = "english";
+    
+    // Results returned by the unpaginated searchQuestions
+    private static final int SEARCH_RESULT_LIMIT = 50;
+    
+    // Newest matches ranked by relevance sorting; ranking every match of a common term is a full scan
+    private static final int RELEVANCE_CANDIDATES = 1000;
+    
+    // Rows fetched per round trip when streaming an export
+    private static final int EXPORT_FETCH_SIZE = 500;
+    
+    // Longest an export may hold its connection, including time spent waiting on the client
+    private static final long EXPORT_TIMEOUT_MS = PoolConfig.getLongEnv("EXPORT_TIMEOUT_MS", 300_000);
+    
+    // What a question's answer_count and last_activity_at should be, per the answers table
+    private static final String ACTUAL_ANSWER_COUNT =
+            "(SELECT COUNT(*) FROM answers a WHERE a.question_id = q.id)";
+    private static final String ACTUAL_LAST_ACTIVITY =
+            "GREATEST(q.created_at, (SELECT MAX(a.created_at) FROM answers a WHERE a.question_id = q.id))";
+    private static final String ANSWER_COUNTS_DRIFTED =
+            "(q.answer_count <> " + ACTUAL_ANSWER_COUNT + " OR q.last_activity_at IS DISTINCT FROM " + ACTUAL_LAST_ACTIVITY + ")";
+    
+    // Sort key of hot feed cursors, which hold an offset into the ranking
+    private static final String HOT_CURSOR_KEY = "HOT";
+    
+    /**
+     * SET clause adding an event, whose weight is the one parameter, to a question's hot_score
+     */
+    static final String RAISE_HOT_SCORE = "hot_score = hot_score_add(hot_score, hot_activity(?, LOCALTIMESTAMP))";
+    
+    private final FacetDAO facetDAO = new FacetDAO();
+    private final TagDAO tagDAO = new TagDAO();
+    
+    /**
+     * Receives questions one at a time from a streaming read
+     */
+    @FunctionalInterface
+    public interface QuestionHandler {
+        void handle(Question question) throws IOException;
+    }
+    
     /**
      * Creates a new question in the database
      * 
@@ -24,90 +94,333 @@ public class QuestionDAO {
      * @throws SQLException If a database error occurs
      */
     public boolean createQuestion(Question question) throws SQLException {
+        return insertQuestion(question) > 0;
+    }
+    
+    /**
+     * Adds a new question to the database
+     * 
+     * @param question The Question object to add
+     * @return The ID of the newly added question, or -1 if the operation failed
+     */
+    public int addQuestion(Question question) {
+        try {
+            return insertQuestion(question);
+        } catch (SQLException e) {
+            System.err.println("Error adding question: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Inserts a question with its tags and counts it in its category and tag facets
+     * in the same transaction, then adds it to the search index
+     * 
+     * @param question The Question object to insert; its id and createdAt are set from the new row
+     * @return The ID of the new question, or -1 if no row was inserted
+     * @throws SQLException If a database error occurs; the transaction is rolled back
+     */
+    private int insertQuestion(Question question) throws SQLException {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
         
         try {
             conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            String sql = "INSERT INTO questions (title, body, tags, user_id, is_solved, category, is_anonymous) "
-                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+            String sql = "INSERT INTO questions (title, body, user_id, is_solved, category, is_anonymous) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
             
             pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             pstmt.setString(1, question.getTitle());
             pstmt.setString(2, question.getBody());
-            pstmt.setString(3, question.getTags());
-            pstmt.setInt(4, question.getUserId());
-            pstmt.setBoolean(5, question.isSolved());
-            pstmt.setString(6, question.getCategory());
-            pstmt.setBoolean(7, question.isAnonymous());
+            pstmt.setInt(3, question.getUserId());
+            pstmt.setBoolean(4, question.isSolved());
+            pstmt.setString(5, question.getCategory());
+            pstmt.setBoolean(6, question.isAnonymous());
             
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows == 0) {
-                return false;
+                conn.rollback();
+                return -1;
             }
             
             rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                // Set the generated ID back to the question object
-                question.setId(rs.getInt(1));
-                return true;
-            } else {
-                return false;
+            if (!rs.next()) {
+                conn.rollback();
+                return -1;
             }
+            int questionId = rs.getInt("id");
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            String createdAtText = rs.getString("created_at");
+            double hotScore = rs.getDouble("hot_score");
             
+            tagDAO.addQuestionTags(conn, questionId, createdAt, question.getTags());
+            
+            // A new question has no answers yet
+            facetDAO.adjustCounts(conn, question.getCategory(), question.getTags(), 1, 1, question.isSolved() ? 1 : 0);
+            
+            conn.commit();
+            
+            // Set the generated ID back to the question object
+            question.setId(questionId);
+            question.setCreatedAt(createdAtText);
+            SearchIndex.getInstance().add(question);
+            HotFeed.getInstance().update(questionId, hotScore);
+            QuestionCaches.listingsChanged();
+            return questionId;
+            
+        } catch (SQLException e) {
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            throw e;
         } finally {
             // Close resources
-            if (rs != null) rs.close();
-            if (pstmt != null) pstmt.close();
-            if (conn != null) DBConnection.releaseConnection(conn);
+            try {
+                if (rs != null) rs.close();
+                if (pstmt != null) pstmt.close();
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    DBConnection.releaseConnection(conn);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
         }
     }
     
     /**
-     * Adds a new question to the database
+     * Retrieves all questions from the database, with user names
      * 
-     * @param question The Question object to add
-     * @return The ID of the newly added question, or -1 if the operation failed
+     * Like every listing method this returns summaries with a body preview;
+     * use getQuestionById for the full body.
+     * 
+     * @return List of all questions
      */
-    public int addQuestion(Question question) {
+    public List<QuestionSummary> getAllQuestions() {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
+        List<QuestionSummary> questions = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "INSERT INTO questions (title, body, tags, user_id, is_solved, category, is_anonymous) "
-                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+            String sql = "SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name " +
+                         "FROM questions q " +
+                         "LEFT JOIN users u ON q.user_id = u.id " +
+                         "ORDER BY q.created_at DESC";
             
-            pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setString(1, question.getTitle());
-            pstmt.setString(2, question.getBody());
-            pstmt.setString(3, question.getTags());
-            pstmt.setInt(4, question.getUserId());
-            pstmt.setBoolean(5, question.isSolved());
-            pstmt.setString(6, question.getCategory());
-            pstmt.setBoolean(7, question.isAnonymous());
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
             
-            int affectedRows = pstmt.executeUpdate();
+            while (rs.next()) {
+                QuestionSummary question = extractSummaryFromResultSet(rs);
+                questions.add(question);
+            }
             
-            if (affectedRows == 0) {
-                throw new SQLException("Creating question failed, no rows affected.");
+            return questions;
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting all questions: " + e.getMessage());
+            return questions;
+        } finally {
+            // Close resources
+            try {
+                if (rs != null) rs.close();
+                if (pstmt != null) pstmt.close();
+                if (conn != null) DBConnection.releaseConnection(conn);
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
             }
+        }
+    }
+    
+    /**
+     * Retrieves one page of questions, newest first, optionally filtered by category
+     * 
+     * Pages are keyed on (created_at, id) rather than an offset, so each page is a
+     * range scan of the (created_at DESC, id DESC) index no matter how deep the
+     * reader has scrolled, and rows inserted meanwhile don't shift later pages.
+     * 
+     * @param category The category to filter by, or null for all questions
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return The page of questions
+     * @throws IllegalArgumentException If the cursor is malformed
+     * @throws SQLException If a database error occurs
+     */
+    public QuestionPage getQuestionsPage(String category, String cursor, int limit) throws SQLException {
+        return getPage(category, null, cursor, limit, false);
+    }
+    
+    /**
+     * Retrieves one page of unanswered questions, newest first, optionally filtered by category
+     * 
+     * Reads the partial indexes on answer_count = 0, which hold only unanswered
+     * questions, so the cost follows the number of unanswered questions rather than
+     * the size of the questions and answers tables.
+     * 
+     * @param category The category to filter by, or null for all unanswered questions
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return The page of unanswered questions
+     * @throws IllegalArgumentException If the cursor is malformed
+     * @throws SQLException If a database error occurs
+     */
+    public QuestionPage getUnansweredQuestionsPage(String category, String cursor, int limit) throws SQLException {
+        return getPage(category, null, cursor, limit, true);
+    }
+    
+    /**
+     * Retrieves one page of the questions with a tag, newest first
+     * 
+     * Walks the (tag_id, created_at DESC, question_id DESC) index of question_tags and
+     * joins only the questions on the page, so a tag page costs the same for a tag on
+     * ten questions as for one on a hundred thousand.
+     * 
+     * @param tag The tag name
+     * @param category The category to filter by, or null for all categories
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @param unansweredOnly Whether to restrict the listing to questions without answers
+     * @return The page of questions
+     * @throws IllegalArgumentException If the cursor is malformed
+     * @throws SQLException If a database error occurs
+     */
+    public QuestionPage getQuestionsByTagPage(String tag, String category, String cursor, int limit,
+                                              boolean unansweredOnly) throws SQLException {
+        return getPage(category, tag.trim().toLowerCase(Locale.ROOT), cursor, limit, unansweredOnly);
+    }
+    
+    /**
+     * Retrieves one page of the hot feed: questions ranked by time-decayed activity
+     * 
+     * The ranking is read from HotFeed and only the questions on the page are loaded,
+     * by primary key. It covers the HOT_FEED_SIZE hottest questions; the cursor is an
+     * offset into it, so a question whose rank changes between pages may be skipped
+     * or repeated.
+     * 
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return The page of questions
+     * @throws IllegalArgumentException If the cursor is malformed
+     * @throws SQLException If the feed couldn't be loaded or a database error occurs
+     */
+    public QuestionPage getHotQuestionsPage(String cursor, int limit) throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<QuestionSummary> questions = new ArrayList<>();
+        
+        int offset = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            if (!position[0].equals(HOT_CURSOR_KEY)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            offset = Integer.parseInt(position[1]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        HotFeed feed = HotFeed.getInstance();
+        // An empty feed before the first load would look like there is nothing hot
+        if (!feed.isLoaded() && !loadHotFeed()) {
+            throw new SQLException("Hot feed could not be loaded");
+        }
+        // One extra to learn whether another page follows
+        List<Integer> ids = feed.page(offset, limit + 1);
+        boolean hasMore = ids.size() > limit;
+        if (hasMore) {
+            ids = ids.subList(0, limit);
+        }
+        if (ids.isEmpty()) {
+            return new QuestionPage(questions, null);
+        }
+        
+        try {
+            conn = DBConnection.getReadConnection();
             
-            rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
-            } else {
-                throw new SQLException("Creating question failed, no ID obtained.");
+            String sql = "SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name " +
+                         "FROM questions q " +
+                         "LEFT JOIN users u ON q.user_id = u.id " +
+                         "WHERE q.id = ANY(?)";
+            
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            rs = pstmt.executeQuery();
+            
+            Map<Integer, QuestionSummary> byId = new HashMap<>();
+            while (rs.next()) {
+                QuestionSummary question = extractSummaryFromResultSet(rs);
+                byId.put(question.getId(), question);
+            }
+            // Keep the feed's order; questions deleted meanwhile are left out
+            for (int id : ids) {
+                QuestionSummary question = byId.get(id);
+                if (question != null) {
+                    questions.add(question);
+                }
+            }
+            
+            String nextCursor = hasMore ? encodeCursor(HOT_CURSOR_KEY, offset + limit) : null;
+            return new QuestionPage(questions, nextCursor);
+            
+        } finally {
+            // Close resources
+            try {
+                if (rs != null) rs.close();
+                if (pstmt != null) pstmt.close();
+                if (conn != null) DBConnection.releaseConnection(conn);
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Loads the hottest questions from the database into HotFeed
+     * 
+     * Run on first use and periodically, so the feed also picks up scores raised by
+     * other application instances. Scores only rise, so merging never loses an
+     * update made in this process while the query ran.
+     * 
+     * @return true if the feed was loaded, false if the query failed
+     */
+    public boolean loadHotFeed() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        Map<Integer, Double> scores = new HashMap<>();
+        
+        try {
+            conn = DBConnection.getReadConnection();
+            
+            String sql = "SELECT id, hot_score FROM questions ORDER BY hot_score DESC LIMIT ?";
+            
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, HotFeed.getInstance().getCapacity());
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                scores.put(rs.getInt("id"), rs.getDouble("hot_score"));
             }
             
+            HotFeed.getInstance().load(scores);
+            return true;
+            
         } catch (SQLException e) {
-            System.err.println("Error adding question: " + e.getMessage());
-            return -1;
+            System.err.println("Error loading hot feed: " + e.getMessage());
+            return false;
         } finally {
             // Close resources
             try {
@@ -121,44 +434,225 @@ public class QuestionDAO {
     }
     
     /**
-     * Retrieves all questions from the database, with user names
+     * Runs a keyset-paginated question listing
      * 
-     * @return List of all questions
+     * @param tag The tag name to list the questions of, or null for all questions
+     * @param unansweredOnly Whether to restrict the listing to questions without answers
+     * @throws SQLException If a database error occurs
+     */
+    private QuestionPage getPage(String category, String tag, String cursor, int limit, boolean unansweredOnly)
+            throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<QuestionSummary> questions = new ArrayList<>();
+        
+        // Decode before borrowing a connection so a bad cursor costs nothing
+        Timestamp afterCreatedAt = null;
+        int afterId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            afterCreatedAt = parseTimestampKey(position[0]);
+            afterId = Integer.parseInt(position[1]);
+        }
+        boolean filterByCategory = category != null && !category.isEmpty();
+        boolean byTag = tag != null;
+        
+        try {
+            conn = DBConnection.getReadConnection();
+            
+            pstmt = conn.prepareStatement(pageSql(byTag, unansweredOnly, filterByCategory, afterCreatedAt != null));
+            int index = 1;
+            if (byTag) {
+                pstmt.setString(index++, tag);
+            }
+            if (filterByCategory) {
+                pstmt.setString(index++, category);
+            }
+            if (afterCreatedAt != null) {
+                pstmt.setTimestamp(index++, afterCreatedAt);
+                pstmt.setInt(index++, afterId);
+            }
+            // Fetch one extra row to learn whether another page follows
+            pstmt.setInt(index, limit + 1);
+            rs = pstmt.executeQuery();
+            
+            Timestamp lastCreatedAt = null;
+            boolean hasMore = false;
+            while (rs.next()) {
+                if (questions.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                questions.add(extractSummaryFromResultSet(rs));
+                lastCreatedAt = rs.getTimestamp("created_at");
+            }
+            
+            String nextCursor = null;
+            if (hasMore && lastCreatedAt != null) {
+                nextCursor = encodeCursor(lastCreatedAt, questions.get(questions.size() - 1).getId());
+            }
+            
+            return new QuestionPage(questions, nextCursor);
+            
+        } finally {
+            // Close resources
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) DBConnection.releaseConnection(conn);
+        }
+    }
+    
+    /**
+     * Builds the query of a keyset-paginated question listing
+     * 
+     * Parameters are bound in order: tag name, category, cursor created_at and id, limit.
+     * 
+     * @param byTag Whether the listing is of the questions with a tag
+     * @param unansweredOnly Whether to restrict the listing to questions without answers
+     * @param filterByCategory Whether the listing is filtered by category
+     * @param afterCursor Whether the listing continues after a cursor
+     * @return The SQL of the listing
+     */
+    static String pageSql(boolean byTag, boolean unansweredOnly, boolean filterByCategory, boolean afterCursor) {
+        // Tag pages are keyed on question_tags' copy of created_at, which its index is ordered by
+        String keyColumns = byTag ? "qt.created_at, qt.question_id" : "q.created_at, q.id";
+        String keyOrder = byTag ? "qt.created_at DESC, qt.question_id DESC" : "q.created_at DESC, q.id DESC";
+        
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name ");
+        if (byTag) {
+            sql.append("FROM question_tags qt JOIN questions q ON q.id = qt.question_id " +
+                       "LEFT JOIN users u ON q.user_id = u.id " +
+                       "WHERE qt.tag_id = (SELECT id FROM tags WHERE name = ?) ");
+        } else {
+            sql.append("FROM questions q " +
+                       "LEFT JOIN users u ON q.user_id = u.id " +
+                       "WHERE TRUE ");
+        }
+        if (unansweredOnly) {
+            // Must match the partial index predicate literally for the planner to use it
+            sql.append("AND q." + UNANSWERED_PREDICATE + " ");
+        }
+        if (filterByCategory) {
+            sql.append("AND q.category = ? ");
+        }
+        if (afterCursor) {
+            sql.append("AND (" + keyColumns + ") < (?, ?) ");
+        }
+        sql.append("ORDER BY " + keyOrder + " LIMIT ?");
+        return sql.toString();
+    }
+    
+    /**
+     * Retrieves questions with IDs above a given one, in ID order, for walking the
+     * whole table in batches
+     * 
+     * @param afterId Only questions with a greater ID are returned; 0 starts at the beginning
+     * @param limit Maximum number of questions to return
+     * @return The next batch of questions; shorter than limit once the end is reached
+     * @throws SQLException If a database error occurs
      */
-    public List<Question> getAllQuestions() {
+    public List<Question> getQuestionsAfterId(int afterId, int limit) throws SQLException {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
         List<Question> questions = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT q.*, u.name AS user_name, " +
-                         "(SELECT COUNT(*) FROM answers a WHERE a.question_id = q.id) AS answer_count " +
+            String sql = "SELECT " + QUESTION_COLUMNS + ", u.name AS user_name " +
                          "FROM questions q " +
                          "LEFT JOIN users u ON q.user_id = u.id " +
-                         "ORDER BY q.created_at DESC";
+                         "WHERE q.id > ? " +
+                         "ORDER BY q.id LIMIT ?";
             
             pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit);
             rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                Question question = extractQuestionFromResultSet(rs);
-                questions.add(question);
+                questions.add(extractQuestionFromResultSet(rs));
             }
             
             return questions;
             
-        } catch (SQLException e) {
-            System.err.println("Error getting all questions: " + e.getMessage());
-            return questions;
+        } finally {
+            // Close resources
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) DBConnection.releaseConnection(conn);
+        }
+    }
+    
+    /**
+     * Streams every question, newest first, to a handler without collecting them in memory
+     * 
+     * Runs in a read-only transaction with a JDBC fetch size, which makes the driver
+     * read the rows through a server-side cursor EXPORT_FETCH_SIZE at a time instead of
+     * loading the whole result set, so memory use stays flat however many rows there are.
+     * The connection is held until the handler has taken the last row, so the export is
+     * cut off after EXPORT_TIMEOUT_MS however slowly the client reads.
+     * 
+     * @param category The category to export, or null for all questions
+     * @param handler Called once per question, in order
+     * @return The number of questions streamed
+     * @throws SQLException If a database error occurs or the export times out
+     * @throws IOException If the handler fails, which ends the export
+     */
+    public int exportQuestions(String category, QuestionHandler handler) throws SQLException, IOException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        boolean wasReadOnly = false;
+        boolean filterByCategory = category != null && !category.isEmpty();
+        
+        try {
+            long deadline = System.currentTimeMillis() + EXPORT_TIMEOUT_MS;
+            conn = DBConnection.getReadConnection();
+            // The driver only uses a cursor, and honours the fetch size, inside a transaction
+            conn.setAutoCommit(false);
+            // Replica connections are already read-only; primary ones are put back as they were
+            wasReadOnly = conn.isReadOnly();
+            conn.setReadOnly(true);
+            
+            String sql = "SELECT " + QUESTION_COLUMNS + ", u.name AS user_name " +
+                         "FROM questions q " +
+                         "LEFT JOIN users u ON q.user_id = u.id " +
+                         (filterByCategory ? "WHERE q.category = ? " : "") +
+                         "ORDER BY q.created_at DESC, q.id DESC";
+            
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+            pstmt.setQueryTimeout((int) Math.max(1, EXPORT_TIMEOUT_MS / 1000));
+            if (filterByCategory) {
+                pstmt.setString(1, category);
+            }
+            rs = pstmt.executeQuery();
+            
+            int count = 0;
+            while (rs.next()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new SQLTimeoutException("Export exceeded " + EXPORT_TIMEOUT_MS + " ms after " + count + " questions");
+                }
+                handler.handle(extractQuestionFromResultSet(rs));
+                count++;
+            }
+            
+            conn.commit();
+            return count;
+            
         } finally {
             // Close resources
             try {
                 if (rs != null) rs.close();
                 if (pstmt != null) pstmt.close();
-                if (conn != null) DBConnection.releaseConnection(conn);
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.setReadOnly(wasReadOnly);
+                    DBConnection.releaseConnection(conn);
+                }
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
             }
@@ -171,17 +665,16 @@ public class QuestionDAO {
      * @param userId The ID of the user whose questions to retrieve
      * @return List of questions posted by the user
      */
-    public List<Question> getQuestionsByUserId(int userId) {
+    public List<QuestionSummary> getQuestionsByUserId(int userId) {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
-        List<Question> questions = new ArrayList<>();
+        List<QuestionSummary> questions = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT q.*, u.name AS user_name, " +
-                         "(SELECT COUNT(*) FROM answers a WHERE a.question_id = q.id) AS answer_count " +
+            String sql = "SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name " +
                          "FROM questions q " +
                          "LEFT JOIN users u ON q.user_id = u.id " +
                          "WHERE q.user_id = ? " +
@@ -192,7 +685,7 @@ public class QuestionDAO {
             rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                Question question = extractQuestionFromResultSet(rs);
+                QuestionSummary question = extractSummaryFromResultSet(rs);
                 questions.add(question);
             }
             
@@ -218,27 +711,26 @@ public class QuestionDAO {
      * 
      * @return List of unanswered questions
      */
-    public List<Question> getUnansweredQuestions() {
+    public List<QuestionSummary> getUnansweredQuestions() {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
-        List<Question> questions = new ArrayList<>();
+        List<QuestionSummary> questions = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT q.*, u.name AS user_name, 0 AS answer_count " +
+            String sql = "SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name " +
                          "FROM questions q " +
                          "LEFT JOIN users u ON q.user_id = u.id " +
-                         "LEFT JOIN answers a ON q.id = a.question_id " +
-                         "WHERE a.id IS NULL " +
+                         "WHERE q.answer_count = 0 " +
                          "ORDER BY q.created_at DESC";
             
             pstmt = conn.prepareStatement(sql);
             rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                Question question = extractQuestionFromResultSet(rs);
+                QuestionSummary question = extractSummaryFromResultSet(rs);
                 questions.add(question);
             }
             
@@ -264,17 +756,17 @@ public class QuestionDAO {
      * 
      * @param questionId The ID of the question to retrieve
      * @return The Question object if found, null otherwise
+     * @throws SQLException If a database error occurs
      */
-    public Question getQuestionById(int questionId) {
+    public Question getQuestionById(int questionId) throws SQLException {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT q.*, u.name AS user_name, " +
-                         "(SELECT COUNT(*) FROM answers a WHERE a.question_id = q.id) AS answer_count " +
+            String sql = "SELECT " + QUESTION_COLUMNS + ", u.name AS user_name " +
                          "FROM questions q " +
                          "LEFT JOIN users u ON q.user_id = u.id " +
                          "WHERE q.id = ?";
@@ -289,18 +781,11 @@ public class QuestionDAO {
                 return null;
             }
             
-        } catch (SQLException e) {
-            System.err.println("Error getting question by ID: " + e.getMessage());
-            return null;
         } finally {
             // Close resources
-            try {
-                if (rs != null) rs.close();
-                if (pstmt != null) pstmt.close();
-                if (conn != null) DBConnection.releaseConnection(conn);
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
-            }
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) DBConnection.releaseConnection(conn);
         }
     }
     
@@ -312,49 +797,139 @@ public class QuestionDAO {
      */
     public boolean markQuestionAsSolved(int questionId) {
         Connection conn = null;
-        PreparedStatement pstmt = null;
         
         try {
             conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            String sql = "UPDATE questions SET is_solved = true WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, questionId);
+            if (!solveQuestion(conn, questionId, facetDAO)) {
+                conn.rollback();
+                return false;
+            }
             
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            conn.commit();
+            QuestionCaches.questionChanged(questionId);
+            return true;
             
         } catch (SQLException e) {
             System.err.println("Error marking question as solved: " + e.getMessage());
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
             return false;
         } finally {
             // Close resources
             try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) DBConnection.releaseConnection(conn);
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    DBConnection.releaseConnection(conn);
+                }
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
             }
         }
     }
     
+    /**
+     * Marks a question as solved within the caller's transaction, counting it as solved
+     * in its facets if it wasn't already
+     * 
+     * @param conn The connection of the caller's open transaction
+     * @param questionId The ID of the question
+     * @param facetDAO DAO for the facet counts
+     * @return true if the question exists, false otherwise
+     * @throws SQLException If a database error occurs
+     */
+    static boolean solveQuestion(Connection conn, int questionId, FacetDAO facetDAO) throws SQLException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            // Lock the row so two concurrent solves can't both see it unsolved
+            String selectSql = "SELECT q.category, " + TagDAO.TAG_NAMES + " AS tags, q.is_solved " +
+                               "FROM questions q WHERE q.id = ? FOR UPDATE OF q";
+            pstmt = conn.prepareStatement(selectSql);
+            pstmt.setInt(1, questionId);
+            rs = pstmt.executeQuery();
+            
+            if (!rs.next()) {
+                return false;
+            }
+            if (rs.getBoolean("is_solved")) {
+                return true;
+            }
+            String category = rs.getString("category");
+            List<String> tags = TagDAO.readTags(rs, "tags");
+            
+            // Close the previous resources
+            rs.close();
+            pstmt.close();
+            
+            String sql = "UPDATE questions SET is_solved = true WHERE id = ?";
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, questionId);
+            pstmt.executeUpdate();
+            
+            facetDAO.adjustCounts(conn, category, tags, 0, 0, 1);
+            return true;
+            
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+        }
+    }
+    
+    /**
+     * Raises a question's hot score by one activity event within the caller's transaction
+     * 
+     * Pass the returned score to HotFeed.update once the transaction has committed.
+     * 
+     * @param conn The connection of the caller's open transaction
+     * @param questionId The ID of the question
+     * @param weight The event's weight, one of the HotFeed weights
+     * @return The question's new hot_score, or NaN if the question doesn't exist
+     * @throws SQLException If a database error occurs
+     */
+    static double recordActivity(Connection conn, int questionId, double weight) throws SQLException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            String sql = "UPDATE questions SET " + RAISE_HOT_SCORE + " WHERE id = ? RETURNING hot_score";
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setDouble(1, weight);
+            pstmt.setInt(2, questionId);
+            // execute rather than executeQuery, so the pool records the write
+            pstmt.execute();
+            rs = pstmt.getResultSet();
+            return rs.next() ? rs.getDouble("hot_score") : Double.NaN;
+            
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+        }
+    }
+    
     /**
      * Retrieves questions by category
      * 
      * @param category The category to filter by
      * @return List of questions in the specified category
      */
-    public List<Question> getQuestionsByCategory(String category) {
+    public List<QuestionSummary> getQuestionsByCategory(String category) {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
-        List<Question> questions = new ArrayList<>();
+        List<QuestionSummary> questions = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT q.*, u.name AS user_name, " +
-                         "(SELECT COUNT(*) FROM answers a WHERE a.question_id = q.id) AS answer_count " +
+            String sql = "SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name " +
                          "FROM questions q " +
                          "LEFT JOIN users u ON q.user_id = u.id " +
                          "WHERE q.category = ? " +
@@ -365,7 +940,7 @@ public class QuestionDAO {
             rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                Question question = extractQuestionFromResultSet(rs);
+                QuestionSummary question = extractSummaryFromResultSet(rs);
                 questions.add(question);
             }
             
@@ -389,42 +964,170 @@ public class QuestionDAO {
     /**
      * Search questions by keyword in title, body, or tags
      * 
+     * Returns the first page of ranked full-text matches; see searchQuestionsPage.
+     * 
      * @param keyword The search keyword
-     * @return List of matching questions
+     * @return List of matching questions, best match first
+     * @throws SQLException If a database error occurs
+     */
+    public List<QuestionSummary> searchQuestions(String keyword) throws SQLException {
+        return searchQuestionsPage(keyword, null, SEARCH_RESULT_LIMIT).getQuestions();
+    }
+    
+    /**
+     * Retrieves one page of full-text search results, best match first
+     * 
+     * @param query The search text
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return The page of matching questions
+     * @throws IllegalArgumentException If the cursor is malformed
+     * @throws SQLException If a database error occurs
+     */
+    public QuestionPage searchQuestionsPage(String query, String cursor, int limit) throws SQLException {
+        if (query == null || query.trim().isEmpty()) {
+            return new QuestionPage(new ArrayList<>(), null);
+        }
+        return searchQuestionsPage(new QuestionSearch(query), cursor, limit);
+    }
+    
+    /**
+     * Retrieves one page of questions matching a keyword query and filters
+     * 
+     * The query is parsed with websearch_to_tsquery, so it accepts the syntax people
+     * type into search boxes ("quoted phrases", or, -excluded). Matching runs against
+     * the trigger-maintained search_vector through its GIN index; ts_rank weighs title
+     * matches above tags and tags above body. Category, tag, time window and status filters
+     * are applied in the same query. Newest, votes and answers are sorted by the database
+     * over all matches, by created_at, the maintained vote_total and answer_count. Relevance
+     * ranks only the newest RELEVANCE_CANDIDATES matches, which the primary key yields
+     * without reading every match, so common terms don't rank tens of thousands of rows.
+     * Pages are keyed on (sort value, id) like the feed, and the tags and body preview are
+     * only read for the questions on the page. Relevance sorting without a query falls
+     * back to newest first.
+     * 
+     * @param search The search criteria
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of questions on the page
+     * @return The page of matching questions
+     * @throws IllegalArgumentException If the cursor is malformed or belongs to another sort
+     * @throws SQLException If a database error occurs
      */
-    public List<Question> searchQuestions(String keyword) {
+    public QuestionPage searchQuestionsPage(QuestionSearch search, String cursor, int limit) throws SQLException {
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
-        List<Question> questions = new ArrayList<>();
+        List<QuestionSummary> questions = new ArrayList<>();
+        
+        boolean hasQuery = search.hasQuery();
+        boolean hasTag = search.getTag() != null && !search.getTag().trim().isEmpty();
+        QuestionSearch.Sort sort = search.getSort();
+        if (sort == QuestionSearch.Sort.RELEVANCE && !hasQuery) {
+            sort = QuestionSearch.Sort.NEWEST;
+        }
+        
+        String sortKey;
+        switch (sort) {
+            case RELEVANCE: sortKey = "ts_rank(c.search_vector, c.tsq)"; break;
+            case VOTES: sortKey = "q.vote_total"; break;
+            case ANSWERS: sortKey = "q.answer_count"; break;
+            default: sortKey = "q.created_at"; break;
+        }
+        
+        // Decode before borrowing a connection so a bad cursor costs nothing
+        Object afterKey = null;
+        int afterId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            afterKey = parseSearchKey(sort, position[0]);
+            afterId = Integer.parseInt(position[1]);
+        }
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
-            String sql = "SELECT q.*, u.name AS user_name, " +
-                         "(SELECT COUNT(*) FROM answers a WHERE a.question_id = q.id) AS answer_count " +
-                         "FROM questions q " +
+            // The page's IDs and sort keys, with every filter and the sort applied in one pass
+            List<Object> params = new ArrayList<>();
+            StringBuilder matches = new StringBuilder("FROM questions q");
+            if (hasQuery) {
+                matches.append(", websearch_to_tsquery('" + SEARCH_CONFIG + "', ?) tsq WHERE q.search_vector @@ tsq");
+                params.add(search.getQuery());
+            } else {
+                matches.append(" WHERE TRUE");
+            }
+            if (search.getCategory() != null && !search.getCategory().isEmpty()) {
+                matches.append(" AND q.category = ?");
+                params.add(search.getCategory());
+            }
+            if (hasTag) {
+                matches.append(" AND q.id IN (SELECT qt.question_id FROM question_tags qt " +
+                            "WHERE qt.tag_id = (SELECT id FROM tags WHERE name = ?))");
+                params.add(search.getTag().trim().toLowerCase(Locale.ROOT));
+            }
+            if (search.getTimeWindow().getHours() > 0) {
+                // LOCALTIMESTAMP matches the column type, so the created_at indexes stay usable
+                matches.append(" AND q.created_at >= LOCALTIMESTAMP - ? * INTERVAL '1 hour'");
+                params.add(search.getTimeWindow().getHours());
+            }
+            if (search.getAnswered() != null) {
+                // Literal predicate so the unanswered partial indexes can be chosen
+                matches.append(search.getAnswered() ? " AND q.answer_count > 0" : " AND q.answer_count = 0");
+            }
+            if (search.getSolved() != null) {
+                matches.append(" AND q.is_solved = ?");
+                params.add(search.getSolved());
+            }
+            StringBuilder page;
+            String idColumn;
+            if (sort == QuestionSearch.Sort.RELEVANCE) {
+                // Only the candidates are ranked, and later pages rank the same candidates
+                matches.append(" ORDER BY q.id DESC LIMIT ?");
+                params.add(RELEVANCE_CANDIDATES);
+                page = new StringBuilder("SELECT c.id, " + sortKey + " AS sort_key " +
+                                         "FROM (SELECT q.id, q.search_vector, tsq " + matches + ") c WHERE TRUE");
+                idColumn = "c.id";
+            } else {
+                page = new StringBuilder("SELECT q.id, " + sortKey + " AS sort_key " + matches);
+                idColumn = "q.id";
+            }
+            if (afterKey != null) {
+                page.append(" AND (" + sortKey + ", " + idColumn + ") < (?, ?)");
+                params.add(afterKey);
+                params.add(afterId);
+            }
+            page.append(" ORDER BY sort_key DESC, " + idColumn + " DESC LIMIT ?");
+            // Fetch one extra row to learn whether another page follows
+            params.add(limit + 1);
+            
+            String sql = "SELECT " + SUMMARY_COLUMNS + ", u.name AS user_name, p.sort_key " +
+                         "FROM (" + page + ") p JOIN questions q ON q.id = p.id " +
                          "LEFT JOIN users u ON q.user_id = u.id " +
-                         "WHERE q.title LIKE ? OR q.body LIKE ? OR q.tags LIKE ? " +
-                         "ORDER BY q.created_at DESC";
+                         "ORDER BY p.sort_key DESC, p.id DESC";
             
             pstmt = conn.prepareStatement(sql);
-            String searchPattern = "%" + keyword + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            pstmt.setString(3, searchPattern);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
             rs = pstmt.executeQuery();
             
+            Object lastKey = null;
+            boolean hasMore = false;
             while (rs.next()) {
-                Question question = extractQuestionFromResultSet(rs);
-                questions.add(question);
+                if (questions.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                questions.add(extractSummaryFromResultSet(rs));
+                lastKey = rs.getObject("sort_key");
             }
             
-            return questions;
+            String nextCursor = null;
+            if (hasMore && lastKey != null) {
+                nextCursor = encodeCursor(sort.name() + ":" + lastKey, questions.get(questions.size() - 1).getId());
+            }
+            
+            return new QuestionPage(questions, nextCursor);
             
-        } catch (SQLException e) {
-            System.err.println("Error searching questions: " + e.getMessage());
-            return questions;
         } finally {
             // Close resources
             try {
@@ -437,6 +1140,102 @@ public class QuestionDAO {
         }
     }
     
+    /**
+     * Parses the sort key of a search cursor, which is prefixed with the sort it belongs to
+     * 
+     * @return The key, typed to match the sort's column
+     * @throws IllegalArgumentException If the key is malformed or belongs to another sort
+     */
+    static Object parseSearchKey(QuestionSearch.Sort sort, String key) {
+        String prefix = sort.name() + ":";
+        if (!key.startsWith(prefix)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String value = key.substring(prefix.length());
+        try {
+            switch (sort) {
+                case RELEVANCE:
+                    float rank = Float.parseFloat(value);
+                    if (Float.isNaN(rank) || Float.isInfinite(rank)) {
+                        throw new IllegalArgumentException("Invalid cursor");
+                    }
+                    return rank;
+                case VOTES:
+                case ANSWERS:
+                    return Integer.parseInt(value);
+                default:
+                    return parseTimestampKey(value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    /**
+     * Recomputes answer_count and last_activity_at for questions whose stored
+     * values no longer match the answers table
+     * 
+     * The counters are kept up to date by AnswerDAO in the same transaction as each
+     * insert; this bulk pass only repairs drift from writes made outside the DAOs.
+     * The drifted rows are locked first, which waits for answer inserts in flight and
+     * blocks new ones, and the UPDATE then recounts them from a fresh snapshot, so a
+     * concurrent answer_count + 1 is never overwritten with a stale count.
+     * 
+     * @return The number of questions repaired, or -1 if the repair failed
+     */
+    public int repairAnswerCounts() {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+            
+            String lockSql = "SELECT q.id FROM questions q WHERE " + ANSWER_COUNTS_DRIFTED + " FOR UPDATE";
+            pstmt = conn.prepareStatement(lockSql);
+            pstmt.executeQuery().close();
+            
+            // Close the previous resource
+            pstmt.close();
+            
+            String sql = "UPDATE questions q " +
+                         "SET answer_count = " + ACTUAL_ANSWER_COUNT + ", " +
+                         "last_activity_at = " + ACTUAL_LAST_ACTIVITY + " " +
+                         "WHERE " + ANSWER_COUNTS_DRIFTED;
+            
+            pstmt = conn.prepareStatement(sql);
+            int repaired = pstmt.executeUpdate();
+            
+            conn.commit();
+            if (repaired > 0) {
+                QuestionCaches.listingsChanged();
+            }
+            return repaired;
+            
+        } catch (SQLException e) {
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            System.err.println("Error repairing answer counts: " + e.getMessage());
+            return -1;
+        } finally {
+            // Close resources
+            try {
+                if (pstmt != null) pstmt.close();
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    DBConnection.releaseConnection(conn);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Helper method to extract a Question object from a ResultSet
      * 
@@ -449,15 +1248,79 @@ public class QuestionDAO {
         question.setId(rs.getInt("id"));
         question.setTitle(rs.getString("title"));
         question.setBody(rs.getString("body"));
-        question.setTags(rs.getString("tags"));
+        question.setTags(TagDAO.readTags(rs, "tags"));
         question.setUserId(rs.getInt("user_id"));
         question.setUserName(rs.getString("user_name"));
         question.setCreatedAt(rs.getString("created_at"));
         question.setSolved(rs.getBoolean("is_solved"));
         question.setAnswerCount(rs.getInt("answer_count"));
+        question.setLastActivityAt(rs.getString("last_activity_at"));
         question.setCategory(rs.getString("category"));
         question.setAnonymous(rs.getBoolean("is_anonymous"));
         
         return question;
     }
+    
+    /**
+     * Helper method to extract a QuestionSummary from a ResultSet selecting SUMMARY_COLUMNS
+     * 
+     * @param rs The ResultSet to extract from
+     * @return A QuestionSummary populated with data from the ResultSet
+     * @throws SQLException If a database access error occurs
+     */
+    private QuestionSummary extractSummaryFromResultSet(ResultSet rs) throws SQLException {
+        QuestionSummary summary = new QuestionSummary();
+        summary.setId(rs.getInt("id"));
+        summary.setTitle(rs.getString("title"));
+        summary.setPreview(QuestionSummary.toPreview(rs.getString("preview")));
+        summary.setTags(TagDAO.readTags(rs, "tags"));
+        summary.setUserId(rs.getInt("user_id"));
+        summary.setUserName(rs.getString("user_name"));
+        summary.setCreatedAt(rs.getString("created_at"));
+        summary.setSolved(rs.getBoolean("is_solved"));
+        summary.setAnswerCount(rs.getInt("answer_count"));
+        summary.setLastActivityAt(rs.getString("last_activity_at"));
+        summary.setCategory(rs.getString("category"));
+        summary.setAnonymous(rs.getBoolean("is_anonymous"));
+        
+        return summary;
+    }
+    
+    /**
+     * Encodes a listing position (sort key and id of the last row) as an opaque, URL-safe cursor
+     */
+    static String encodeCursor(Object sortKey, int id) {
+        String position = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor into its sort key and id parts
+     * 
+     * @throws IllegalArgumentException If the cursor was not produced by encodeCursor
+     */
+    static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Integer.parseInt(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    /**
+     * Parses the created_at sort key of a listing cursor
+     */
+    static Timestamp parseTimestampKey(String key) {
+        try {
+            return Timestamp.valueOf(key);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
 }
@@ -0,0 +1,90 @@
+package com.peerq.dao;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Data Access Object for the tags and question_tags tables.
+ *
+ * Each tag name is stored once in tags; question_tags links questions to them and
+ * carries a copy of the question's created_at, so a tag page is a range scan of the
+ * (tag_id, created_at DESC, question_id DESC) index.
+ */
+public class TagDAO {
+
+    /**
+     * Select-list expression for the tag names of the question aliased q, alphabetically
+     */
+    static final String TAG_NAMES = "ARRAY(SELECT t.name FROM question_tags qt JOIN tags t ON t.id = qt.tag_id "
+            + "WHERE qt.question_id = q.id ORDER BY t.name)";
+
+    /**
+     * Links a new question to its tags as part of the caller's transaction, creating
+     * tags that don't exist yet
+     *
+     * @param conn The connection of the caller's open transaction
+     * @param questionId The ID of the question
+     * @param createdAt The question's creation time
+     * @param tags The question's tag names, already normalized by Question.parseTags
+     * @throws SQLException If a database error occurs
+     */
+    void addQuestionTags(Connection conn, int questionId, Timestamp createdAt, List<String> tags)
+            throws SQLException {
+        if (tags == null || tags.isEmpty()) {
+            return;
+        }
+        PreparedStatement pstmt = null;
+
+        try {
+            // Sorted, so concurrent inserts of the same new tags lock them in the same order
+            Array names = conn.createArrayOf("varchar", new TreeSet<>(tags).toArray());
+
+            String insertTagsSql = "INSERT INTO tags (name) SELECT unnest(?::varchar[]) " +
+                                   "ON CONFLICT (name) DO NOTHING";
+            pstmt = conn.prepareStatement(insertTagsSql);
+            pstmt.setArray(1, names);
+            pstmt.executeUpdate();
+            pstmt.close();
+
+            // A separate statement, so tags another transaction has just committed are visible
+            String linkSql = "INSERT INTO question_tags (question_id, tag_id, created_at) " +
+                             "SELECT ?, id, ? FROM tags WHERE name = ANY(?::varchar[])";
+            pstmt = conn.prepareStatement(linkSql);
+            pstmt.setInt(1, questionId);
+            pstmt.setTimestamp(2, createdAt);
+            pstmt.setArray(3, names);
+            pstmt.executeUpdate();
+
+        } finally {
+            if (pstmt != null) pstmt.close();
+        }
+    }
+
+    /**
+     * Reads a column selected with TAG_NAMES
+     *
+     * @param rs The ResultSet positioned on a row
+     * @param column The column label
+     * @return The tag names, empty if the question has none
+     * @throws SQLException If a database access error occurs
+     */
+    static List<String> readTags(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        if (array == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(Arrays.asList((String[]) array.getArray()));
+        } finally {
+            array.free();
+        }
+    }
+}
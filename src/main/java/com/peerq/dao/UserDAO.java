@@ -147,7 +147,7 @@ public class UserDAO {
         ResultSet rs = null;
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
             String sql = "SELECT * FROM users WHERE id = ?";
             pstmt = conn.prepareStatement(sql);
@@ -233,7 +233,7 @@ public class UserDAO {
         List<User> users = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
             String sql = "SELECT * FROM users ORDER BY reputation DESC";
             pstmt = conn.prepareStatement(sql);
@@ -168,7 +168,7 @@ public class VoteDAO {
         List<Vote> votes = new ArrayList<>();
         
         try {
-            conn = DBConnection.getConnection();
+            conn = DBConnection.getReadConnection();
             
             String sql = "SELECT * FROM votes WHERE answer_id = ?";
             pstmt = conn.prepareStatement(sql);
@@ -20,10 +20,16 @@ import javafx.scene.image.ImageView;
 import com.peerq.dao.QuestionDAO;
 import com.peerq.dao.UserDAO;
 import com.peerq.dao.AnswerDAO;
+import com.peerq.dao.AsyncQuestionDAO;
+import com.peerq.dao.FacetDAO;
 import com.peerq.model.Question;
+import com.peerq.model.QuestionSummary;
+import com.peerq.model.QuestionSearch;
 import com.peerq.model.User;
 import com.peerq.model.Answer;
+import com.peerq.model.FacetCount;
 import com.peerq.util.DBConnection;
+import com.peerq.util.DBExecutor;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -31,6 +37,8 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 public class PeerQMainApplication extends Application {
     private static final Color PRIMARY_COLOR = Color.rgb(0, 255, 127); // Green accent
@@ -38,6 +46,7 @@ public class PeerQMainApplication extends Application {
     private static final Color CARD_BACKGROUND = Color.rgb(26, 26, 26); // Card background
     private static final Color BORDER_COLOR = Color.rgb(68, 68, 68); // Border color
     private static final Color TEXT_COLOR = Color.rgb(224, 224, 224); // Text color
+    private static final int SEARCH_LIMIT = 50; // Results shown for a search
     
     private StackPane mainContent;
     private VBox questionList;
@@ -62,12 +71,23 @@ public class PeerQMainApplication extends Application {
     private QuestionDAO questionDAO;
     private UserDAO userDAO;
     private AnswerDAO answerDAO;
+    private AsyncQuestionDAO asyncQuestionDAO;
+    private FacetDAO facetDAO;
     
     // Current user
     private User currentUser;
     
     // Store all questions for filtering
-    private List<Question> allQuestions = new ArrayList<>();
+    private List<QuestionSummary> allQuestions = new ArrayList<>();
+    
+    // True while the list shows the built-in sample questions because the database is unavailable
+    private boolean showingSampleQuestions = false;
+    
+    // Counter that lets the results of stale searches be discarded
+    private int searchGeneration = 0;
+    
+    // Question counts shown in the category filter, keyed by category
+    private Map<String, Integer> categoryCounts = new HashMap<>();
     
     @Override
     public void start(Stage primaryStage) {
@@ -176,6 +196,8 @@ public class PeerQMainApplication extends Application {
             questionDAO = new QuestionDAO();
             userDAO = new UserDAO();
             answerDAO = new AnswerDAO();
+            asyncQuestionDAO = new AsyncQuestionDAO(questionDAO);
+            facetDAO = new FacetDAO();
             System.out.println("Database connection initialized successfully");
         } catch (Exception e) {
             System.err.println("Error initializing database: " + e.getMessage());
@@ -327,6 +349,8 @@ public class PeerQMainApplication extends Application {
         categoryFilter.setPrefWidth(140);
         categoryFilter.setPrefHeight(28);
         categoryFilter.setStyle("-fx-font-size: 12px;");
+        categoryFilter.setCellFactory(list -> new CategoryCountCell());
+        categoryFilter.setButtonCell(new CategoryCountCell());
         
         // Add event handlers for search and filter
         if (searchField != null) {
@@ -372,27 +396,72 @@ public class PeerQMainApplication extends Application {
     }
     
     private void loadQuestionsFromDatabase(VBox questionsList) {
-        try {
-            allQuestions = questionDAO.getAllQuestions();
-            
-            if (allQuestions.isEmpty()) {
-                // Create sample questions if database is empty
-                allQuestions = createSampleQuestions();
+        // Query off the JavaFX thread so the window stays responsive while loading
+        asyncQuestionDAO.getAllQuestions().whenComplete((questions, error) -> 
+            javafx.application.Platform.runLater(() -> {
+                if (error != null) {
+                    System.err.println("Error loading questions: " + error.getMessage());
+                    // Fallback to sample questions
+                    allQuestions = createSampleQuestions();
+                    showingSampleQuestions = true;
+                } else if (questions.isEmpty()) {
+                    // Create sample questions if database is empty
+                    allQuestions = createSampleQuestions();
+                    showingSampleQuestions = true;
+                } else {
+                    allQuestions = questions;
+                    showingSampleQuestions = false;
+                }
+                
+                // Display questions
+                displayQuestions(allQuestions, questionsList);
+            }));
+        loadCategoryCounts();
+    }
+    
+    /**
+     * Loads the per-category question counts for the category filter in the background
+     */
+    private void loadCategoryCounts() {
+        DBExecutor.supplyAsync(() -> facetDAO.getFacets()).whenComplete((facets, error) ->
+            javafx.application.Platform.runLater(() -> {
+                if (error != null) {
+                    System.err.println("Error loading category counts: " + error.getMessage());
+                    return;
+                }
+                Map<String, Integer> counts = new HashMap<>();
+                int total = 0;
+                for (FacetCount facet : facets.getCategories()) {
+                    counts.put(facet.getValue(), facet.getTotal());
+                    total += facet.getTotal();
+                }
+                counts.put("All Categories", total);
+                categoryCounts = counts;
+                
+                // Recreate the cells so they pick up the new counts
+                categoryFilter.setCellFactory(list -> new CategoryCountCell());
+                categoryFilter.setButtonCell(new CategoryCountCell());
+            }));
+    }
+    
+    /**
+     * Category filter cell showing the category's question count after its name
+     */
+    private class CategoryCountCell extends ListCell<String> {
+        @Override
+        protected void updateItem(String item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setText(null);
+            } else {
+                Integer count = categoryCounts.get(item);
+                setText(count != null ? item + " (" + count + ")" : item);
             }
-            
-            // Display questions
-            displayQuestions(allQuestions, questionsList);
-            
-        } catch (Exception e) {
-            System.err.println("Error loading questions: " + e.getMessage());
-            // Fallback to sample questions
-            allQuestions = createSampleQuestions();
-            displayQuestions(allQuestions, questionsList);
         }
     }
     
-    private List<Question> createSampleQuestions() {
-        List<Question> sampleQuestions = new ArrayList<>();
+    private List<QuestionSummary> createSampleQuestions() {
+        List<QuestionSummary> sampleQuestions = new ArrayList<>();
         
         // Sample question 1
         Question q1 = new Question();
@@ -403,7 +472,7 @@ public class PeerQMainApplication extends Application {
         q1.setUserName("John Doe");
         q1.setCreatedAt("2025-06-09 10:42:00");
         q1.setAnswerCount(5);
-        sampleQuestions.add(q1);
+        sampleQuestions.add(QuestionSummary.of(q1));
         
         // Sample question 2
         Question q2 = new Question();
@@ -414,7 +483,7 @@ public class PeerQMainApplication extends Application {
         q2.setUserName("Jane Smith");
         q2.setCreatedAt("2025-06-09 08:15:00");
         q2.setAnswerCount(3);
-        sampleQuestions.add(q2);
+        sampleQuestions.add(QuestionSummary.of(q2));
         
         // Sample question 3
         Question q3 = new Question();
@@ -425,7 +494,7 @@ public class PeerQMainApplication extends Application {
         q3.setUserName("Mike Johnson");
         q3.setCreatedAt("2025-06-08 14:30:00");
         q3.setAnswerCount(7);
-        sampleQuestions.add(q3);
+        sampleQuestions.add(QuestionSummary.of(q3));
         
         // Sample question 4
         Question q4 = new Question();
@@ -436,7 +505,7 @@ public class PeerQMainApplication extends Application {
         q4.setUserName("Sarah Wilson");
         q4.setCreatedAt("2025-06-08 16:45:00");
         q4.setAnswerCount(12);
-        sampleQuestions.add(q4);
+        sampleQuestions.add(QuestionSummary.of(q4));
         
         // Sample question 5
         Question q5 = new Question();
@@ -447,7 +516,7 @@ public class PeerQMainApplication extends Application {
         q5.setUserName("Alex Chen");
         q5.setCreatedAt("2025-06-08 12:20:00");
         q5.setAnswerCount(4);
-        sampleQuestions.add(q5);
+        sampleQuestions.add(QuestionSummary.of(q5));
         
         // Sample question 6
         Question q6 = new Question();
@@ -458,7 +527,7 @@ public class PeerQMainApplication extends Application {
         q6.setUserName("Emily Davis");
         q6.setCreatedAt("2025-06-08 09:30:00");
         q6.setAnswerCount(6);
-        sampleQuestions.add(q6);
+        sampleQuestions.add(QuestionSummary.of(q6));
         
         // Sample question 7
         Question q7 = new Question();
@@ -469,7 +538,7 @@ public class PeerQMainApplication extends Application {
         q7.setUserName("David Brown");
         q7.setCreatedAt("2025-06-07 18:15:00");
         q7.setAnswerCount(8);
-        sampleQuestions.add(q7);
+        sampleQuestions.add(QuestionSummary.of(q7));
         
         // Sample question 8
         Question q8 = new Question();
@@ -480,7 +549,7 @@ public class PeerQMainApplication extends Application {
         q8.setUserName("Lisa Wang");
         q8.setCreatedAt("2025-06-07 15:45:00");
         q8.setAnswerCount(9);
-        sampleQuestions.add(q8);
+        sampleQuestions.add(QuestionSummary.of(q8));
         
         // Sample question 9
         Question q9 = new Question();
@@ -491,7 +560,7 @@ public class PeerQMainApplication extends Application {
         q9.setUserName("Tom Anderson");
         q9.setCreatedAt("2025-06-07 11:20:00");
         q9.setAnswerCount(5);
-        sampleQuestions.add(q9);
+        sampleQuestions.add(QuestionSummary.of(q9));
         
         // Sample question 10
         Question q10 = new Question();
@@ -502,23 +571,60 @@ public class PeerQMainApplication extends Application {
         q10.setUserName("Rachel Green");
         q10.setCreatedAt("2025-06-07 08:30:00");
         q10.setAnswerCount(7);
-        sampleQuestions.add(q10);
+        sampleQuestions.add(QuestionSummary.of(q10));
         
         return sampleQuestions;
     }
     
+    /**
+     * Shows the questions matching the search text and category
+     * 
+     * Search text is matched by the database's full-text search over titles, tags and
+     * whole bodies, like the web search, since the loaded summaries only hold a preview
+     * of each body. The sample questions shown while offline are filtered locally.
+     */
     private void filterQuestions() {
         if (questionsListContainer == null) return;
         
-        String searchText = searchField.getText().toLowerCase().trim();
+        String searchText = searchField.getText().trim();
         String selectedCategory = categoryFilter.getValue();
+        int generation = ++searchGeneration;
         
-        List<Question> filteredQuestions = new ArrayList<>();
+        if (searchText.isEmpty() || showingSampleQuestions) {
+            showFilteredQuestions(allQuestions, searchText.toLowerCase(), selectedCategory);
+            return;
+        }
+        
+        QuestionSearch search = new QuestionSearch(searchText);
+        if (!"All Categories".equals(selectedCategory)) {
+            search.setCategory(selectedCategory);
+        }
+        asyncQuestionDAO.searchQuestionsPage(search, null, SEARCH_LIMIT).whenComplete((page, error) ->
+            javafx.application.Platform.runLater(() -> {
+                if (generation != searchGeneration) {
+                    // The search text or category changed while this search ran
+                    return;
+                }
+                if (error != null) {
+                    System.err.println("Error searching questions: " + error.getMessage());
+                    showFilteredQuestions(allQuestions, searchText.toLowerCase(), selectedCategory);
+                    return;
+                }
+                questionsListContainer.getChildren().clear();
+                displayQuestions(page.getQuestions(), questionsListContainer);
+            }));
+    }
+    
+    /**
+     * Filters already loaded questions by text in their title, preview or author, and by category
+     */
+    private void showFilteredQuestions(List<QuestionSummary> questions, String searchText, String selectedCategory) {
+        List<QuestionSummary> filteredQuestions = new ArrayList<>();
         
-        for (Question question : allQuestions) {
+        for (QuestionSummary question : questions) {
             boolean matchesSearch = searchText.isEmpty() || 
                 question.getTitle().toLowerCase().contains(searchText) ||
-                question.getBody().toLowerCase().contains(searchText) ||
+                question.getPreview().toLowerCase().contains(searchText) ||
                 question.getUserName().toLowerCase().contains(searchText);
             
             boolean matchesCategory = "All Categories".equals(selectedCategory) || 
@@ -534,20 +640,20 @@ public class PeerQMainApplication extends Application {
         displayQuestions(filteredQuestions, questionsListContainer);
     }
     
-    private void displayQuestions(List<Question> questions, VBox container) {
+    private void displayQuestions(List<QuestionSummary> questions, VBox container) {
         if (questions.isEmpty()) {
             Label noResultsLabel = new Label("No questions found matching your criteria.");
             noResultsLabel.setStyle("-fx-text-fill: #E0E0E0; -fx-font-size: 16px;");
             noResultsLabel.setAlignment(Pos.CENTER);
             container.getChildren().add(noResultsLabel);
         } else {
-            for (Question question : questions) {
+            for (QuestionSummary question : questions) {
                 container.getChildren().add(createQuestionCardFromDB(question));
             }
         }
     }
     
-    private VBox createQuestionCardFromDB(Question question) {
+    private VBox createQuestionCardFromDB(QuestionSummary question) {
         VBox card = new VBox(16);
         card.setPadding(new Insets(20));
         card.getStyleClass().add("question-card");
@@ -557,7 +663,7 @@ public class PeerQMainApplication extends Application {
         titleLabel.setStyle("-fx-text-fill: #00FF7F; -fx-effect: dropshadow(gaussian, rgba(0, 255, 127, 0.1), 1, 0, 0, 0);");
         titleLabel.setWrapText(true);
         
-        Label previewLabel = new Label(question.getBody());
+        Label previewLabel = new Label(question.getPreview());
         previewLabel.setTextFill(Color.rgb(204, 204, 204));
         previewLabel.setWrapText(true);
         
@@ -582,11 +688,32 @@ public class PeerQMainApplication extends Application {
         card.getChildren().addAll(titleLabel, previewLabel, meta);
         
         // Add click handler
-        card.setOnMouseClicked(e -> showQuestionDetail(question));
+        card.setOnMouseClicked(e -> openQuestion(question));
         
         return card;
     }
     
+    /**
+     * Loads the full question behind a list card and shows it. Falls back to the
+     * summary when the question can't be loaded, e.g. for the offline sample questions.
+     */
+    private void openQuestion(QuestionSummary summary) {
+        asyncQuestionDAO.getQuestionById(summary.getId()).whenComplete((question, error) ->
+            javafx.application.Platform.runLater(() -> {
+                if (error != null) {
+                    System.err.println("Error loading question: " + error.getMessage());
+                }
+                if (question != null) {
+                    showQuestionDetail(question);
+                } else {
+                    Question fallback = new Question(summary.getId(), summary.getTitle(), summary.getPreview(),
+                            summary.getTags(), summary.getUserId(), summary.getUserName(), summary.getCreatedAt(),
+                            summary.isSolved(), summary.getAnswerCount(), summary.getCategory(), summary.isAnonymous());
+                    showQuestionDetail(fallback);
+                }
+            }));
+    }
+    
     private VBox createQuestionCard(String title, String preview, String category, String answers, String time) {
         VBox card = new VBox(16);
         card.setPadding(new Insets(20));
@@ -1059,12 +1186,21 @@ public class PeerQMainApplication extends Application {
                 return;
             }
             
+            List<String> tagNames;
+            try {
+                tagNames = Question.parseTags(tags);
+            } catch (IllegalArgumentException ex) {
+                showAlert("Error", ex.getMessage());
+                return;
+            }
+            
             try {
                 // Create new question
                 Question newQuestion = new Question();
                 newQuestion.setTitle(questionTitle);
                 newQuestion.setBody(questionDetails);
                 newQuestion.setCategory(selectedCategory);
+                newQuestion.setTags(tagNames);
                 newQuestion.setUserId(currentUser.getId());
                 newQuestion.setUserName(currentUser.getName());
                 newQuestion.setCreatedAt(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
@@ -1084,6 +1220,7 @@ public class PeerQMainApplication extends Application {
                     
                     // Refresh questions list
                     allQuestions = questionDAO.getAllQuestions();
+                    showingSampleQuestions = false;
                     if (questionsListContainer != null) {
                         filterQuestions();
                     }
@@ -0,0 +1,176 @@
+package com.peerq.feed;
+
+import com.peerq.util.PoolConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * In-memory ranking of the HOT_FEED_SIZE (default 1000) hottest questions.
+ *
+ * A question's hot score is the log2 of its time-decayed activity: the question
+ * itself, its answers, upvotes on them and an accepted answer, each weighted and
+ * decayed with a one-day half-life. The score is stored in questions.hot_score and
+ * raised in SQL (hot_score_add, hot_activity) by the transaction recording each
+ * event; the DAOs then pass the new score here. Because every question decays at
+ * the same rate, the ranking only changes when a score rises, and a question outside
+ * the top K can only enter it through one of its own events, so the ranking is kept
+ * exact without ever re-sorting the table.
+ *
+ * Reads go through a sorted snapshot rebuilt after changes, so a page costs
+ * O(page size).
+ */
+public class HotFeed {
+    /** Weight of an answer relative to posting a question */
+    public static final double ANSWER_WEIGHT = 2;
+    /** Weight of an upvote on one of the question's answers */
+    public static final double UPVOTE_WEIGHT = 1;
+    /** Weight of accepting one of the question's answers */
+    public static final double ACCEPT_WEIGHT = 3;
+
+    private static final int CAPACITY = (int) PoolConfig.getLongEnv("HOT_FEED_SIZE", 1000);
+
+    private static final class Entry {
+        final int questionId;
+        final double score;
+
+        Entry(int questionId, double score) {
+            this.questionId = questionId;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Entry> HOTTEST_FIRST = Comparator
+            .comparingDouble((Entry e) -> e.score).reversed()
+            .thenComparing(Comparator.comparingInt((Entry e) -> e.questionId).reversed());
+
+    // Declared after the comparator, which the constructor uses
+    private static final HotFeed instance = new HotFeed(CAPACITY);
+
+    private final int capacity;
+
+    // Guarded by this
+    private final TreeSet<Entry> ranked = new TreeSet<>(HOTTEST_FIRST);
+    private final Map<Integer, Entry> byQuestionId = new HashMap<>();
+
+    // Question ids hottest first, rebuilt on the first read after a change
+    private volatile int[] snapshot;
+    private volatile boolean loaded = false;
+
+    HotFeed(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Gets the application-wide feed
+     */
+    public static HotFeed getInstance() {
+        return instance;
+    }
+
+    /**
+     * Gets the maximum number of questions ranked
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Checks whether the feed has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Records a question's new score after an event raised it
+     *
+     * Scores only rise, so a lower score than the one held (from an event whose commit
+     * overtook this one) is ignored.
+     *
+     * @param questionId The ID of the question
+     * @param score Its hot_score after the event, or NaN (ignored) if the question wasn't found
+     */
+    public synchronized void update(int questionId, double score) {
+        if (!Double.isNaN(score) && offer(questionId, score)) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Merges the hottest questions read from the database, keeping the higher score
+     * for questions already held, and marks the feed loaded
+     *
+     * @param scores Question IDs mapped to their hot_score
+     */
+    public synchronized void load(Map<Integer, Double> scores) {
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            offer(score.getKey(), score.getValue());
+        }
+        snapshot = null;
+        loaded = true;
+    }
+
+    /**
+     * Gets the IDs of a range of the ranking, hottest first
+     *
+     * @param offset Number of questions to skip
+     * @param limit Maximum number of IDs to return
+     * @return The IDs, fewer than limit at the end of the ranking
+     */
+    public List<Integer> page(int offset, int limit) {
+        int[] order = snapshot;
+        if (order == null) {
+            order = buildSnapshot();
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int i = Math.max(0, offset); i < order.length && ids.size() < limit; i++) {
+            ids.add(order[i]);
+        }
+        return ids;
+    }
+
+    private synchronized int[] buildSnapshot() {
+        int[] order = snapshot;
+        if (order != null) {
+            return order;
+        }
+        order = new int[ranked.size()];
+        int i = 0;
+        for (Entry entry : ranked) {
+            order[i++] = entry.questionId;
+        }
+        snapshot = order;
+        return order;
+    }
+
+    /**
+     * Places a question in the ranking if it is hot enough, evicting the coolest
+     *
+     * @return true if the ranking changed
+     */
+    private boolean offer(int questionId, double score) {
+        Entry current = byQuestionId.get(questionId);
+        if (current != null) {
+            if (current.score >= score) {
+                return false;
+            }
+            ranked.remove(current);
+        } else if (ranked.size() >= capacity && score <= ranked.last().score) {
+            return false;
+        }
+
+        Entry entry = new Entry(questionId, score);
+        ranked.add(entry);
+        byQuestionId.put(questionId, entry);
+        if (ranked.size() > capacity) {
+            Entry coolest = ranked.pollLast();
+            byQuestionId.remove(coolest.questionId);
+        }
+        return true;
+    }
+}
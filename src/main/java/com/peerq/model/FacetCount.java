@@ -0,0 +1,71 @@
+package com.peerq.model;
+
+import java.io.Serializable;
+
+/**
+ * Question counts for one category or tag value.
+ * Implements Serializable for object serialization.
+ */
+public class FacetCount implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String value;
+    private int total;
+    private int unanswered;
+    private int solved;
+
+    /**
+     * Default constructor
+     */
+    public FacetCount() {
+    }
+
+    /**
+     * Constructor with all fields
+     *
+     * @param value The category name or tag
+     * @param total Number of questions with this value
+     * @param unanswered How many of them have no answers
+     * @param solved How many of them are solved
+     */
+    public FacetCount(String value, int total, int unanswered, int solved) {
+        this.value = value;
+        this.total = total;
+        this.unanswered = unanswered;
+        this.solved = solved;
+    }
+
+    // Getters and Setters
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getUnanswered() {
+        return unanswered;
+    }
+
+    public void setUnanswered(int unanswered) {
+        this.unanswered = unanswered;
+    }
+
+    public int getSolved() {
+        return solved;
+    }
+
+    public void setSolved(int solved) {
+        this.solved = solved;
+    }
+}
@@ -0,0 +1,62 @@
+package com.peerq.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Question counts per category and per tag as read at one point in time,
+ * each list ordered by total, largest first.
+ * Implements Serializable for object serialization.
+ */
+public class FacetSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<FacetCount> categories;
+    private List<FacetCount> tags;
+    private long loadedAt; // Epoch milliseconds
+
+    /**
+     * Default constructor
+     */
+    public FacetSnapshot() {
+    }
+
+    /**
+     * Constructor with all fields
+     *
+     * @param categories Counts per category
+     * @param tags Counts per tag
+     * @param loadedAt When the counts were read, in epoch milliseconds
+     */
+    public FacetSnapshot(List<FacetCount> categories, List<FacetCount> tags, long loadedAt) {
+        this.categories = categories;
+        this.tags = tags;
+        this.loadedAt = loadedAt;
+    }
+
+    // Getters and Setters
+
+    public List<FacetCount> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<FacetCount> categories) {
+        this.categories = categories;
+    }
+
+    public List<FacetCount> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<FacetCount> tags) {
+        this.tags = tags;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public void setLoadedAt(long loadedAt) {
+        this.loadedAt = loadedAt;
+    }
+}
@@ -1,23 +1,32 @@
 package com.peerq.model;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Question model class representing a question in the PeerQ system.
  * Implements Serializable for object serialization.
  */
 public class Question implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+    
+    /**
+     * Maximum length of a single tag
+     */
+    public static final int MAX_TAG_LENGTH = 50;
     
     private int id;
     private String title;
     private String body;
-    private String tags;
+    private List<String> tags = new ArrayList<>(); // Normalized tag names, see parseTags
     private int userId;
     private String userName; // Denormalized for display purposes
     private String createdAt;
     private boolean isSolved;
     private int answerCount; // Denormalized count for display purposes
+    private String lastActivityAt; // Time of the question or its latest answer
     private String category;
     private boolean isAnonymous;
     
@@ -32,12 +41,12 @@ public class Question implements Serializable {
      * 
      * @param title Question title
      * @param body Question content
-     * @param tags Associated tags (comma-separated)
+     * @param tags Associated tag names
      * @param userId ID of the user asking the question
      * @param category Question category
      * @param isAnonymous Whether the question is posted anonymously
      */
-    public Question(String title, String body, String tags, int userId, String category, boolean isAnonymous) {
+    public Question(String title, String body, List<String> tags, int userId, String category, boolean isAnonymous) {
         this.title = title;
         this.body = body;
         this.tags = tags;
@@ -51,7 +60,7 @@ public class Question implements Serializable {
     /**
      * Full constructor with all fields
      */
-    public Question(int id, String title, String body, String tags, int userId, String userName, 
+    public Question(int id, String title, String body, List<String> tags, int userId, String userName, 
                    String createdAt, boolean isSolved, int answerCount, String category, boolean isAnonymous) {
         this.id = id;
         this.title = title;
@@ -92,11 +101,11 @@ public class Question implements Serializable {
         this.body = body;
     }
     
-    public String getTags() {
+    public List<String> getTags() {
         return tags;
     }
     
-    public void setTags(String tags) {
+    public void setTags(List<String> tags) {
         this.tags = tags;
     }
     
@@ -132,6 +141,14 @@ public class Question implements Serializable {
         this.isSolved = isSolved;
     }
     
+    public String getLastActivityAt() {
+        return lastActivityAt;
+    }
+    
+    public void setLastActivityAt(String lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+    
     public int getAnswerCount() {
         return answerCount;
     }
@@ -164,7 +181,7 @@ public class Question implements Serializable {
         return "Question{" +
                 "id=" + id +
                 ", title='" + title + '\'' +
-                ", tags='" + tags + '\'' +
+                ", tags=" + tags +
                 ", userId=" + userId +
                 ", userName='" + userName + '\'' +
                 ", createdAt='" + createdAt + '\'' +
@@ -175,6 +192,31 @@ public class Question implements Serializable {
                 '}';
     }
     
+    /**
+     * Parses comma-separated tag input into distinct tag names, trimmed and lower-cased,
+     * in the order given
+     * 
+     * @param input Tag input such as "Java, jdbc ,java", or null
+     * @return The tag names, empty if there are none
+     * @throws IllegalArgumentException If a tag is longer than MAX_TAG_LENGTH
+     */
+    public static List<String> parseTags(String input) {
+        List<String> tags = new ArrayList<>();
+        if (input == null) {
+            return tags;
+        }
+        for (String tag : input.split(",")) {
+            String name = tag.trim().toLowerCase(Locale.ROOT);
+            if (name.length() > MAX_TAG_LENGTH) {
+                throw new IllegalArgumentException("Tags must be at most " + MAX_TAG_LENGTH + " characters");
+            }
+            if (!name.isEmpty() && !tags.contains(name)) {
+                tags.add(name);
+            }
+        }
+        return tags;
+    }
+    
     /**
      * Returns a shortened version of the body for preview purposes
      * 
@@ -0,0 +1,54 @@
+package com.peerq.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a question listing, plus the cursor for the page after it.
+ * Implements Serializable for object serialization.
+ */
+public class QuestionPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<QuestionSummary> questions;
+    private String nextCursor; // null on the last page
+
+    /**
+     * Default constructor
+     */
+    public QuestionPage() {
+    }
+
+    /**
+     * Constructor with all fields
+     *
+     * @param questions Questions on this page, newest first
+     * @param nextCursor Opaque cursor for the next page, or null if this is the last page
+     */
+    public QuestionPage(List<QuestionSummary> questions, String nextCursor) {
+        this.questions = questions;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+
+    public List<QuestionSummary> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<QuestionSummary> questions) {
+        this.questions = questions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
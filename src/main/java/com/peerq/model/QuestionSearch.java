@@ -0,0 +1,192 @@
+package com.peerq.model;
+
+import java.io.Serializable;
+import java.util.Locale;
+
+/**
+ * Search criteria for question searches: keywords plus sort order, time window, tag and
+ * answered/solved filters. Unset filters match every question.
+ * Implements Serializable for object serialization.
+ */
+public class QuestionSearch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Result order
+     */
+    public enum Sort {
+        RELEVANCE, NEWEST, VOTES, ANSWERS;
+
+        /**
+         * Parses a sort parameter such as "newest"; null or empty means relevance
+         *
+         * @throws IllegalArgumentException If the value is not a known sort
+         */
+        public static Sort fromParam(String value) {
+            if (value == null || value.isEmpty()) {
+                return RELEVANCE;
+            }
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sort: " + value);
+            }
+        }
+    }
+
+    /**
+     * How far back to search, by creation time
+     */
+    public enum TimeWindow {
+        ALL(0), DAY(24), WEEK(7 * 24), MONTH(30 * 24), YEAR(365 * 24);
+
+        private final int hours;
+
+        TimeWindow(int hours) {
+            this.hours = hours;
+        }
+
+        /**
+         * Gets the window length in hours, or 0 for no limit
+         */
+        public int getHours() {
+            return hours;
+        }
+
+        /**
+         * Parses a time parameter such as "week"; null or empty means all time
+         *
+         * @throws IllegalArgumentException If the value is not a known window
+         */
+        public static TimeWindow fromParam(String value) {
+            if (value == null || value.isEmpty()) {
+                return ALL;
+            }
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid time filter: " + value);
+            }
+        }
+    }
+
+    private String query;
+    private String category;
+    private String tag;
+    private Sort sort = Sort.RELEVANCE;
+    private TimeWindow timeWindow = TimeWindow.ALL;
+    private Boolean answered; // null matches both
+    private Boolean solved; // null matches both
+
+    /**
+     * Default constructor
+     */
+    public QuestionSearch() {
+    }
+
+    /**
+     * Constructor for a plain keyword search
+     *
+     * @param query Search text
+     */
+    public QuestionSearch(String query) {
+        this.query = query;
+    }
+
+    /**
+     * Applies a comma-separated status parameter, e.g. "answered,solved".
+     * Selecting both values of a pair ("answered,unanswered") leaves that filter off.
+     *
+     * @throws IllegalArgumentException If a value is not a known status
+     */
+    public void setStatusParam(String value) {
+        answered = null;
+        solved = null;
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        boolean wantAnswered = false, wantUnanswered = false, wantSolved = false, wantOpen = false;
+        for (String status : value.split(",")) {
+            switch (status.trim().toLowerCase(Locale.ROOT)) {
+                case "answered": wantAnswered = true; break;
+                case "unanswered": wantUnanswered = true; break;
+                case "solved": wantSolved = true; break;
+                case "open": case "unsolved": wantOpen = true; break;
+                case "": break;
+                default: throw new IllegalArgumentException("Invalid status: " + status);
+            }
+        }
+        if (wantAnswered != wantUnanswered) {
+            answered = wantAnswered;
+        }
+        if (wantSolved != wantOpen) {
+            solved = wantSolved;
+        }
+    }
+
+    /**
+     * Checks whether a keyword query was given
+     */
+    public boolean hasQuery() {
+        return query != null && !query.trim().isEmpty();
+    }
+
+    // Getters and Setters
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    public void setTimeWindow(TimeWindow timeWindow) {
+        this.timeWindow = timeWindow;
+    }
+
+    public Boolean getAnswered() {
+        return answered;
+    }
+
+    public void setAnswered(Boolean answered) {
+        this.answered = answered;
+    }
+
+    public Boolean getSolved() {
+        return solved;
+    }
+
+    public void setSolved(Boolean solved) {
+        this.solved = solved;
+    }
+}
@@ -0,0 +1,173 @@
+package com.peerq.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lightweight view of a question for list views: everything a question card shows,
+ * with a short preview in place of the full body. The full question is loaded by id
+ * when it is opened.
+ * Implements Serializable for object serialization.
+ */
+public class QuestionSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum length of the body preview, including the trailing "..."
+     */
+    public static final int PREVIEW_LENGTH = 200;
+
+    private int id;
+    private String title;
+    private String preview; // Start of the body, at most PREVIEW_LENGTH characters
+    private List<String> tags = new ArrayList<>();
+    private int userId;
+    private String userName; // Denormalized for display purposes
+    private String createdAt;
+    private boolean isSolved;
+    private int answerCount;
+    private String lastActivityAt;
+    private String category;
+    private boolean isAnonymous;
+
+    /**
+     * Default constructor
+     */
+    public QuestionSummary() {
+    }
+
+    /**
+     * Creates the summary of a fully loaded question
+     *
+     * @param question The question to summarize
+     * @return The summary, with the body shortened to a preview
+     */
+    public static QuestionSummary of(Question question) {
+        QuestionSummary summary = new QuestionSummary();
+        summary.setId(question.getId());
+        summary.setTitle(question.getTitle());
+        summary.setPreview(toPreview(question.getBody()));
+        summary.setTags(question.getTags());
+        summary.setUserId(question.getUserId());
+        summary.setUserName(question.getUserName());
+        summary.setCreatedAt(question.getCreatedAt());
+        summary.setSolved(question.isSolved());
+        summary.setAnswerCount(question.getAnswerCount());
+        summary.setLastActivityAt(question.getLastActivityAt());
+        summary.setCategory(question.getCategory());
+        summary.setAnonymous(question.isAnonymous());
+        return summary;
+    }
+
+    /**
+     * Shortens body text to a preview, marking a cut with "..."
+     *
+     * @param body The body text, or at least its first PREVIEW_LENGTH + 1 characters
+     * @return The preview, or null if body is null
+     */
+    public static String toPreview(String body) {
+        if (body == null || body.length() <= PREVIEW_LENGTH) {
+            return body;
+        }
+        return body.substring(0, PREVIEW_LENGTH - 3) + "...";
+    }
+
+    // Getters and setters
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isSolved() {
+        return isSolved;
+    }
+
+    public void setSolved(boolean isSolved) {
+        this.isSolved = isSolved;
+    }
+
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public String getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(String lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public boolean isAnonymous() {
+        return isAnonymous;
+    }
+
+    public void setAnonymous(boolean isAnonymous) {
+        this.isAnonymous = isAnonymous;
+    }
+}
@@ -0,0 +1,196 @@
+package com.peerq.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vocabulary of title and tag terms with a character n-gram index, used to correct
+ * misspelled query words.
+ *
+ * Each term is padded with '$' and split into overlapping two-character grams, so
+ * "jdbc" becomes $j, jd, db, bc, c$. A misspelled word still shares grams with the
+ * intended term; the terms sharing enough of them are checked with an edit distance
+ * that counts a swap of two adjacent characters as one edit. Bigrams rather than
+ * trigrams because a swap in a short word such as "jvaa" leaves no trigram in common
+ * with "java". Not thread-safe; the owning SearchIndex guards it with its lock.
+ */
+final class NGramIndex {
+    private static final int N = 2;
+    private static final char PAD = '$';
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> termList = new ArrayList<>();
+    private int[] frequencies = new int[1024];
+    private final Map<String, IntList> grams = new HashMap<>();
+
+    /**
+     * Records one more document containing the term; numbers are not recorded
+     */
+    void add(String term) {
+        if (isNumber(term)) {
+            return;
+        }
+        Integer id = termIds.get(term);
+        if (id == null) {
+            id = termList.size();
+            termIds.put(term, id);
+            termList.add(term);
+            if (id == frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, id * 2);
+            }
+            for (String gram : gramsOf(term)) {
+                grams.computeIfAbsent(gram, key -> new IntList()).add(id);
+            }
+        }
+        frequencies[id]++;
+    }
+
+    boolean contains(String term) {
+        return termIds.containsKey(term);
+    }
+
+    int size() {
+        return termList.size();
+    }
+
+    void clear() {
+        termIds.clear();
+        termList.clear();
+        grams.clear();
+        Arrays.fill(frequencies, 0);
+    }
+
+    /**
+     * Finds the closest known term to a word that is not in the vocabulary
+     *
+     * Words of up to two characters and numbers are never corrected; up to five
+     * characters one edit is allowed, beyond that two. Among equally close terms the
+     * one found in the most documents wins.
+     *
+     * @param word A lower-case word
+     * @return the correction, or null if no term is close enough
+     */
+    String correct(String word) {
+        int maxEdits = word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+        if (maxEdits == 0 || isNumber(word) || termList.isEmpty()) {
+            return null;
+        }
+
+        // One edit changes at most three of the word's grams, so closer terms must share the rest
+        Set<String> wordGrams = gramsOf(word);
+        int minShared = Math.max(1, wordGrams.size() - 3 * maxEdits);
+
+        int[] shared = new int[termList.size()];
+        IntList candidates = new IntList();
+        for (String gram : wordGrams) {
+            IntList ids = grams.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                if (shared[id]++ == 0) {
+                    candidates.add(id);
+                }
+            }
+        }
+
+        String best = null;
+        int bestDistance = maxEdits + 1;
+        int bestFrequency = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.values[i];
+            String term = termList.get(id);
+            if (shared[id] < minShared || Math.abs(term.length() - word.length()) > maxEdits) {
+                continue;
+            }
+            int distance = distance(word, term, maxEdits);
+            if (distance == 0) {
+                continue;
+            }
+            if (distance < bestDistance || (distance == bestDistance && frequencies[id] > bestFrequency)) {
+                best = term;
+                bestDistance = distance;
+                bestFrequency = frequencies[id];
+            }
+        }
+        return best;
+    }
+
+    private static Set<String> gramsOf(String term) {
+        String padded = PAD + term + PAD;
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + N <= padded.length(); i++) {
+            result.add(padded.substring(i, i + N));
+        }
+        return result;
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and
+     * adjacent transpositions each cost one
+     *
+     * @return the distance, or maxEdits + 1 once it is known to exceed maxEdits
+     */
+    static int distance(String a, String b, int maxEdits) {
+        int n = a.length();
+        int m = b.length();
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], maxEdits + 1);
+    }
+
+    /**
+     * Growable list of primitive ints
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.peerq.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, with the term's weighted frequency in each.
+ *
+ * Both columns are plain int arrays rather than lists of boxed entries, which keeps a
+ * posting at 8 bytes. Documents are appended in increasing order, so the list stays
+ * sorted without any extra work.
+ */
+final class PostingList {
+    private int[] docs = new int[2];
+    private int[] freqs = new int[2];
+    private int size;
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1;
+            docs = Arrays.copyOf(docs, capacity);
+            freqs = Arrays.copyOf(freqs, capacity);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int freq(int index) {
+        return freqs[index];
+    }
+
+    /**
+     * Finds the first posting whose document is at least the given one
+     *
+     * @return the index of that posting, or size() if there is none
+     */
+    int seek(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,704 @@
+package com.peerq.search;
+
+import com.peerq.dao.QuestionDAO;
+import com.peerq.model.Question;
+import com.peerq.util.MaintenanceScheduler;
+import com.peerq.util.PoolConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over question titles, tags and bodies, ranked with BM25.
+ *
+ * Searches never touch the database, so live search can query it on every keystroke.
+ * The index is loaded at startup from segment files on disk and then caught up from
+ * QuestionDAO with the questions created since; QuestionDAO adds every new question
+ * as it is inserted. Newly added questions are written out as a new segment every
+ * SEARCH_INDEX_FLUSH_INTERVAL_MS (default 60000) and on shutdown. Segments live in
+ * SEARCH_INDEX_DIR (default "search-index"); set it to an empty value to keep the
+ * index in memory only.
+ *
+ * Title terms count three times and tag terms twice, a simple form of BM25F field
+ * weighting. The last word of a query is also matched as a prefix, so partially typed
+ * words find results. Words found nowhere in the index are matched through their
+ * closest title or tag term through an n-gram index, so small typos still find results,
+ * and suggest() offers the corrected query as a "did you mean". Results carry a
+ * shortened body and the answer count as of indexing; callers that need the current
+ * row should load it by id.
+ */
+public class SearchIndex {
+    private static final int MAGIC = 0x50515349; // "PQSI"
+    private static final int FORMAT_VERSION = 2; // 2: tags stored as a list
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int BODY_WEIGHT = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final float CORRECTION_WEIGHT = 0.5f;
+    private static final int PREVIEW_LENGTH = 200;
+    private static final int MAX_SEGMENTS = 8;
+    private static final int CATCH_UP_BATCH_SIZE = 1000;
+
+    private static final SearchIndex instance = new SearchIndex(directoryFromEnvironment());
+
+    private final Path directory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+
+    // Guarded by lock; documents are numbered densely in the order they were added
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+    private final List<Question> storedDocs = new ArrayList<>();
+    private final Map<Integer, Integer> docByQuestionId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final NGramIndex vocabulary = new NGramIndex(); // title and tag terms
+    private int[] docLengths = new int[1024];
+    private int docCount;
+    private int liveDocs;
+    private long totalLength;
+
+    // Guarded by this; the highest question id read from segment files or the database.
+    // Live adds don't raise it, so catch-up never skips questions committed before them.
+    private int indexedThroughId;
+
+    // Guarded by flushLock; documents [0, flushedDocs) are stored in segment files
+    private int flushedDocs;
+    private int nextSegment;
+    private final List<Path> segments = new ArrayList<>();
+
+    private volatile boolean ready = false;
+
+    SearchIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the application-wide index
+     */
+    public static SearchIndex getInstance() {
+        return instance;
+    }
+
+    private static Path directoryFromEnvironment() {
+        String dir = System.getenv("SEARCH_INDEX_DIR");
+        if (dir == null) {
+            return Paths.get("search-index");
+        }
+        return dir.trim().isEmpty() ? null : Paths.get(dir.trim());
+    }
+
+    /**
+     * Loads the index from disk and catches up from the database on a background
+     * thread, then schedules periodic flushes
+     *
+     * @param questionDAO DAO to read questions missing from the on-disk segments
+     */
+    public void startAsync(QuestionDAO questionDAO) {
+        Thread loader = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            int fromDisk = loadSegments();
+            catchUp(questionDAO);
+            if (ready) {
+                System.out.println("Search index ready in " + (System.currentTimeMillis() - start) + " ms: "
+                        + size() + " questions, " + fromDisk + " loaded from disk.");
+            }
+        }, "search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+
+        MaintenanceScheduler.schedule("search-index-flush", () -> {
+            // Retry a catch-up that failed at startup, e.g. because the database was down
+            if (!ready) {
+                catchUp(questionDAO);
+            }
+            flush();
+        }, PoolConfig.getLongEnv("SEARCH_INDEX_FLUSH_INTERVAL_MS", 60_000));
+    }
+
+    /**
+     * Checks whether the index has caught up with the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gets the number of indexed questions
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a question to the index, replacing any earlier version of it
+     *
+     * @param question The question; its id must already be assigned
+     */
+    public void add(Question question) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = countTerms(question.getTitle(), TITLE_WEIGHT, frequencies)
+                + countTerms(String.join(" ", question.getTags()), TAG_WEIGHT, frequencies)
+                + countTerms(question.getBody(), BODY_WEIGHT, frequencies);
+        Set<String> vocabularyTerms = vocabularyTerms(question);
+        Question stored = storedCopy(question);
+
+        lock.writeLock().lock();
+        try {
+            int doc = addDocument(stored, length);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+            }
+            for (String term : vocabularyTerms) {
+                vocabulary.add(term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index
+     *
+     * @param query Free-text query; its last word also matches as a prefix unless followed by a space
+     * @param limit Maximum number of results
+     * @return Matching questions, best match first
+     */
+    public List<Question> search(String query, int limit) {
+        List<String> queryTerms = Tokenizer.tokenize(query);
+        List<Question> results = new ArrayList<>();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return results;
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            // Each posting list with its query weight; prefix expansions and typo corrections
+            // count half as much as the word itself so that "java" ranks exact hits above "javascript"
+            Map<PostingList, Float> postings = new LinkedHashMap<>();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                PostingList exact = terms.get(term);
+                if (exact != null) {
+                    postings.put(exact, 1f);
+                }
+                boolean expanded = false;
+                if (i == queryTerms.size() - 1 && lastIsPrefix) {
+                    NavigableMap<String, PostingList> matches = terms.subMap(term, false, term + Character.MAX_VALUE, true);
+                    int expansions = 0;
+                    for (PostingList postingList : matches.values()) {
+                        if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        postings.putIfAbsent(postingList, PREFIX_WEIGHT);
+                        expanded = true;
+                    }
+                }
+                if (exact == null && !expanded) {
+                    String correction = vocabulary.correct(term);
+                    PostingList corrected = correction == null ? null : terms.get(correction);
+                    if (corrected != null) {
+                        postings.putIfAbsent(corrected, CORRECTION_WEIGHT);
+                    }
+                }
+            }
+            
+            float[] scores = new float[docCount];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            float averageLength = docCount == 0 ? 1 : (float) totalLength / docCount;
+
+            for (Map.Entry<PostingList, Float> entry : postings.entrySet()) {
+                PostingList postingList = entry.getKey();
+                int df = postingList.size();
+                double idf = entry.getValue() * Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                for (int i = 0; i < df; i++) {
+                    int doc = postingList.doc(i);
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    int tf = postingList.freq(i);
+                    float norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * docLengths[doc] / averageLength));
+                    if (scores[doc] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += (float) (idf * norm);
+                }
+            }
+
+            // Keep the best `limit` documents in a min-heap; newer documents win ties
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> {
+                int byScore = Float.compare(scores[a], scores[b]);
+                return byScore != 0 ? byScore : Integer.compare(a, b);
+            });
+            for (int i = 0; i < touchedCount; i++) {
+                best.add(touched[i]);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            while (!best.isEmpty()) {
+                results.add(copyOf(storedDocs.get(best.poll())));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // The heap yields the weakest match first
+        Collections.reverse(results);
+        return results;
+    }
+
+    /**
+     * Suggests a corrected query for "did you mean", replacing each word that appears
+     * nowhere in the index with the closest title or tag term
+     *
+     * @param query Free-text query
+     * @return the corrected query, or null if every word is known or none could be corrected
+     */
+    public String suggest(String query) {
+        if (query == null) {
+            return null;
+        }
+
+        StringBuilder suggestion = new StringBuilder(query.length());
+        boolean corrected = false;
+        lock.readLock().lock();
+        try {
+            int length = query.length();
+            int start = -1;
+            for (int i = 0; i <= length; i++) {
+                boolean wordChar = i < length && Character.isLetterOrDigit(query.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar) {
+                    if (start >= 0) {
+                        String word = query.substring(start, i);
+                        String term = word.toLowerCase(Locale.ROOT);
+                        String correction = Tokenizer.isStopWord(term) || terms.containsKey(term)
+                                ? null : vocabulary.correct(term);
+                        if (correction != null) {
+                            suggestion.append(correction);
+                            corrected = true;
+                        } else {
+                            suggestion.append(word);
+                        }
+                        start = -1;
+                    }
+                    if (i < length) {
+                        suggestion.append(query.charAt(i));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return corrected ? suggestion.toString().trim() : null;
+    }
+
+    /**
+     * Reads the questions created after the last one read from segments or the database
+     * and adds them. Questions added live in the meantime may be read again, which only
+     * replaces them with the same row.
+     */
+    synchronized void catchUp(QuestionDAO questionDAO) {
+        try {
+            List<Question> batch;
+            do {
+                batch = questionDAO.getQuestionsAfterId(indexedThroughId, CATCH_UP_BATCH_SIZE);
+                for (Question question : batch) {
+                    add(question);
+                    indexedThroughId = question.getId();
+                }
+            } while (batch.size() == CATCH_UP_BATCH_SIZE);
+            ready = true;
+        } catch (SQLException e) {
+            System.err.println("Error building search index, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the questions added since the last flush to a new segment file, and merges
+     * all segments into one once there are more than MAX_SEGMENTS of them
+     *
+     * Only copying the documents out takes the read lock; the file is written, and the
+     * old segments deleted, without it, so adds are not held up by the disk.
+     */
+    public void flush() {
+        if (directory == null) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            boolean merge = segments.size() >= MAX_SEGMENTS;
+            Segment snapshot;
+            lock.readLock().lock();
+            try {
+                if (docCount == flushedDocs) {
+                    return;
+                }
+                snapshot = snapshot(merge ? 0 : flushedDocs, docCount);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            try {
+                Files.createDirectories(directory);
+                Path segment = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, nextSegment, SEGMENT_SUFFIX));
+                writeSegment(segment, snapshot);
+                nextSegment++;
+                flushedDocs = snapshot.to;
+
+                if (merge) {
+                    // The merged segment holds every live document, so the older ones can go
+                    for (Path old : segments) {
+                        Files.deleteIfExists(old);
+                    }
+                    segments.clear();
+                }
+                segments.add(segment);
+            } catch (IOException e) {
+                System.err.println("Error writing search index segment: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads all segment files in order
+     *
+     * @return the number of questions loaded
+     */
+    private synchronized int loadSegments() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return 0;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing search index segments: " + e.getMessage());
+            return 0;
+        }
+        files.sort(null);
+
+        synchronized (flushLock) {
+            lock.writeLock().lock();
+            try {
+                for (Path file : files) {
+                    indexedThroughId = Math.max(indexedThroughId, readSegment(file));
+                    segments.add(file);
+                    nextSegment = segmentNumber(file) + 1;
+                }
+                flushedDocs = docCount;
+                return liveDocs;
+            } catch (IOException | RuntimeException e) {
+                // A damaged segment would leave the index inconsistent; start over from the database
+                System.err.println("Discarding search index segments: " + e.getMessage());
+                clear();
+                for (Path file : files) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException ignored) {
+                        // Overwritten by later flushes anyway
+                    }
+                }
+                segments.clear();
+                flushedDocs = 0;
+                indexedThroughId = 0;
+                return 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The live documents in [from, to) and their postings, renumbered from zero,
+     * copied out of the index to be written as a segment
+     */
+    private static final class Segment {
+        private final int to;
+        private final List<Question> docs = new ArrayList<>();
+        private final int[] lengths;
+        private final Map<String, PostingList> terms = new LinkedHashMap<>();
+
+        private Segment(int from, int to) {
+            this.to = to;
+            this.lengths = new int[to - from];
+        }
+    }
+
+    /**
+     * Copies the live documents in [from, to) and their postings. Caller holds the read
+     * lock; stored documents are never modified, so they are shared rather than copied.
+     */
+    private Segment snapshot(int from, int to) {
+        Segment segment = new Segment(from, to);
+        int[] localDoc = new int[to - from];
+        for (int doc = from; doc < to; doc++) {
+            if (deleted.get(doc)) {
+                localDoc[doc - from] = -1;
+            } else {
+                localDoc[doc - from] = segment.docs.size();
+                segment.lengths[segment.docs.size()] = docLengths[doc];
+                segment.docs.add(storedDocs.get(doc));
+            }
+        }
+
+        for (Map.Entry<String, PostingList> entry : terms.entrySet()) {
+            PostingList postingList = entry.getValue();
+            PostingList local = null;
+            for (int i = postingList.seek(from); i < postingList.size() && postingList.doc(i) < to; i++) {
+                int doc = localDoc[postingList.doc(i) - from];
+                if (doc >= 0) {
+                    if (local == null) {
+                        local = new PostingList();
+                        segment.terms.put(entry.getKey(), local);
+                    }
+                    local.add(doc, postingList.freq(i));
+                }
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Writes a segment under a temporary name and moves it into place
+     */
+    private static void writeSegment(Path file, Segment segment) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            out.writeInt(segment.docs.size());
+            for (int doc = 0; doc < segment.docs.size(); doc++) {
+                writeDocument(out, segment.docs.get(doc), segment.lengths[doc]);
+            }
+
+            out.writeInt(segment.terms.size());
+            for (Map.Entry<String, PostingList> entry : segment.terms.entrySet()) {
+                PostingList postingList = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(postingList.size());
+                for (int i = 0; i < postingList.size(); i++) {
+                    out.writeInt(postingList.doc(i));
+                    out.writeInt(postingList.freq(i));
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Appends the documents and postings of one segment file
+     *
+     * @return the highest question id in the segment, 0 if it is empty
+     */
+    private int readSegment(Path file) throws IOException {
+        int maxId = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unrecognized segment file " + file);
+            }
+
+            int base = docCount;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Question question = new Question();
+                int length = readDocument(in, question);
+                addDocument(question, length);
+                maxId = Math.max(maxId, question.getId());
+                for (String term : vocabularyTerms(question)) {
+                    vocabulary.add(term);
+                }
+            }
+
+            int termCount = in.readInt();
+            for (int t = 0; t < termCount; t++) {
+                PostingList postingList = terms.computeIfAbsent(in.readUTF(), term -> new PostingList());
+                int postings = in.readInt();
+                for (int i = 0; i < postings; i++) {
+                    int local = in.readInt();
+                    if (local < 0 || local >= count) {
+                        throw new IOException("Corrupt posting in " + file);
+                    }
+                    postingList.add(base + local, in.readInt());
+                }
+            }
+        }
+        return maxId;
+    }
+
+    private static void writeDocument(DataOutputStream out, Question question, int length) throws IOException {
+        out.writeInt(question.getId());
+        out.writeInt(length);
+        writeNullableString(out, question.getTitle());
+        writeNullableString(out, question.getBody());
+        out.writeInt(question.getTags().size());
+        for (String tag : question.getTags()) {
+            out.writeUTF(tag);
+        }
+        writeNullableString(out, question.getCategory());
+        writeNullableString(out, question.getUserName());
+        writeNullableString(out, question.getCreatedAt());
+        out.writeInt(question.getUserId());
+        out.writeInt(question.getAnswerCount());
+        out.writeBoolean(question.isSolved());
+        out.writeBoolean(question.isAnonymous());
+    }
+
+    private static int readDocument(DataInputStream in, Question question) throws IOException {
+        question.setId(in.readInt());
+        int length = in.readInt();
+        question.setTitle(readNullableString(in));
+        question.setBody(readNullableString(in));
+        int tagCount = in.readInt();
+        List<String> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(in.readUTF());
+        }
+        question.setTags(tags);
+        question.setCategory(readNullableString(in));
+        question.setUserName(readNullableString(in));
+        question.setCreatedAt(readNullableString(in));
+        question.setUserId(in.readInt());
+        question.setAnswerCount(in.readInt());
+        question.setSolved(in.readBoolean());
+        question.setAnonymous(in.readBoolean());
+        return length;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Registers a document and retires any earlier version of the same question.
+     * Caller holds the write lock and adds the postings.
+     *
+     * @return the new document number
+     */
+    private int addDocument(Question stored, int length) {
+        Integer previous = docByQuestionId.put(stored.getId(), docCount);
+        if (previous != null && !deleted.get(previous)) {
+            deleted.set(previous);
+            liveDocs--;
+        }
+
+        if (docCount == docLengths.length) {
+            docLengths = Arrays.copyOf(docLengths, docCount * 2);
+        }
+        docLengths[docCount] = length;
+        storedDocs.add(stored);
+        totalLength += length;
+        liveDocs++;
+        return docCount++;
+    }
+
+    private void clear() {
+        terms.clear();
+        storedDocs.clear();
+        docByQuestionId.clear();
+        deleted.clear();
+        vocabulary.clear();
+        docCount = 0;
+        liveDocs = 0;
+        totalLength = 0;
+    }
+
+    private static int countTerms(String text, int weight, Map<String, Integer> frequencies) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Distinct title and tag terms of a question, the words "did you mean" can suggest
+     */
+    private static Set<String> vocabularyTerms(Question question) {
+        Set<String> result = new HashSet<>(Tokenizer.tokenize(question.getTitle()));
+        result.addAll(Tokenizer.tokenize(String.join(" ", question.getTags())));
+        return result;
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Copies the fields kept in the index, with the body cut down to a preview
+     */
+    private static Question storedCopy(Question question) {
+        Question stored = copyOf(question);
+        if (question.getBody() != null) {
+            stored.setBody(question.getBodyPreview(PREVIEW_LENGTH));
+        }
+        if (stored.getCreatedAt() == null) {
+            stored.setCreatedAt(new Timestamp(System.currentTimeMillis()).toString());
+        }
+        return stored;
+    }
+
+    private static Question copyOf(Question question) {
+        Question copy = new Question(question.getId(), question.getTitle(), question.getBody(),
+                new ArrayList<>(question.getTags()), question.getUserId(), question.getUserName(),
+                question.getCreatedAt(), question.isSolved(), question.getAnswerCount(), question.getCategory(),
+                question.isAnonymous());
+        copy.setLastActivityAt(question.getLastActivityAt());
+        return copy;
+    }
+}
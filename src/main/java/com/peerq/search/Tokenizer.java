@@ -0,0 +1,58 @@
+package com.peerq.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-case index terms: runs of letters and digits, minus
+ * common English stop words.
+ */
+final class Tokenizer {
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "how", "i",
+            "if", "in", "into", "is", "it", "of", "on", "or", "so", "that", "the", "their",
+            "then", "there", "this", "to", "was", "what", "when", "where", "which", "who",
+            "why", "will", "with", "you"));
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Checks whether a lower-case word is left out of the index
+     */
+    static boolean isStopWord(String word) {
+        return STOP_WORDS.contains(word);
+    }
+
+    /**
+     * Tokenizes text into terms, in order and with repeats
+     *
+     * @param text The text to tokenize; null yields no terms
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
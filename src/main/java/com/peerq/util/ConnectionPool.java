@@ -0,0 +1,606 @@
+package com.peerq.util;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Callers are admitted through a fair semaphore sized to the maximum pool size,
+ * so at most maxSize connections are ever open and excess callers wait in FIFO
+ * order until one is released or the connection timeout expires. A background
+ * housekeeper retires connections past their maximum lifetime, closes idle
+ * connections above the minimum size, tops the pool back up to the minimum and
+ * reports connections that have been borrowed for longer than the leak threshold.
+ * 
+ * Connections are not validated on every borrow and release. Only a connection
+ * that has been idle longer than the validation threshold is checked with
+ * isValid() before reuse, the housekeeper keeps idle connections alive off the
+ * request path, and a connection whose statement fails with a connection-level
+ * SQLState is discarded when it is released (see {@link ConnectionProxy}).
+ * Each connection keeps an LRU cache of prepared statements (see {@link StatementCache}).
+ * 
+ * Live gauges, counters and latency histograms are exposed through
+ * {@link #getMetrics()} and over JMX as com.peerq:type=ConnectionPool,name=&lt;name&gt;.
+ */
+public class ConnectionPool implements ConnectionPoolMXBean {
+    private static final long HOUSEKEEPING_INTERVAL_MS = 10_000;
+
+    private final String name;
+    private final String url;
+    private final Properties props;
+    private final PoolConfig config;
+    private final boolean readOnly;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Map<Connection, PooledConnection> borrowedConnections = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private final PoolMetrics metrics = new PoolMetrics();
+    private volatile boolean closed = false;
+    private volatile boolean ready = false;
+
+    /**
+     * Creates a pool; no connections are opened until {@link #start()} is called
+     *
+     * @param name Pool name used in log messages
+     * @param url JDBC connection URL
+     * @param props Connection properties (credentials)
+     * @param config Pool sizing and timeout settings
+     * @param readOnly Whether this pool serves a read replica; writes are only tracked
+     *                 for read-your-writes on pools that are not read-only
+     */
+    public ConnectionPool(String name, String url, Properties props, PoolConfig config, boolean readOnly) {
+        this.name = name;
+        this.url = url;
+        this.props = props;
+        this.config = config;
+        this.readOnly = readOnly;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-" + name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the housekeeper and opens the minimum number of connections in parallel.
+     * The pool can be used straight away; borrowers that arrive before warm-up has
+     * finished open their own connections within the maximum size. If warm-up fails,
+     * the housekeeper keeps retrying and the pool becomes ready once it succeeds.
+     *
+     * @return a future that completes when the initial connections are open
+     */
+    public CompletableFuture<Void> startAsync() {
+        long start = System.nanoTime();
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        registerMBean();
+
+        int toOpen = config.getMinSize();
+        if (toOpen == 0) {
+            ready = true;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ExecutorService warmup = Executors.newFixedThreadPool(toOpen, runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-" + name + "-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<?>[] opens = new CompletableFuture<?>[toOpen];
+        for (int i = 0; i < toOpen; i++) {
+            opens[i] = CompletableFuture.runAsync(() -> {
+                if (!closed && reserveSlot()) {
+                    try {
+                        idleConnections.offerLast(openConnection());
+                    } catch (SQLException e) {
+                        throw new CompletionException(e);
+                    }
+                }
+            }, warmup);
+        }
+
+        return CompletableFuture.allOf(opens).whenComplete((ignored, error) -> {
+            warmup.shutdown();
+            if (error == null) {
+                ready = true;
+                System.out.println("Connection pool '" + name + "' ready in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms: " + config);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.err.println("Connection pool '" + name + "' warm-up failed, retrying in the background: "
+                        + cause.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured timeout for one to become available
+     *
+     * @return a database connection that must be handed back with {@link #release(Connection)}
+     * @throws SQLException if the pool is closed, the wait times out or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long timeoutMs = config.getConnectionTimeoutMs();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                metrics.getBorrowWait().recordSince(start);
+                throw timeoutException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = acquire(deadline);
+            pooled.markBorrowed(config.getLeakDetectionThresholdMs() > 0);
+            Connection proxy = ConnectionProxy.wrap(this, pooled);
+            borrowedConnections.put(proxy, pooled);
+            metrics.getBorrowWait().recordSince(start);
+            return proxy;
+        } catch (SQLException | RuntimeException e) {
+            metrics.getBorrowWait().recordSince(start);
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool, closing it if it is broken or expired
+     *
+     * @param conn the connection to return
+     */
+    public void release(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+
+        ConnectionProxy handle = ConnectionProxy.of(conn);
+        if (handle == null || handle.getPool() != this) {
+            // Not one of ours, so nobody else will close it
+            closeQuietly(conn);
+            return;
+        }
+        if (!handle.markReleased()) {
+            System.err.println("Connection returned to pool '" + name + "' twice; ignoring");
+            return;
+        }
+
+        PooledConnection pooled = handle.getPooled();
+        borrowedConnections.remove(conn);
+        metrics.getHoldTime().recordSince(pooled.getBorrowedAtNanos());
+
+        try {
+            Connection physical = pooled.getConnection();
+            if (pooled.isBroken()) {
+                metrics.connectionBroken();
+                destroy(pooled);
+                return;
+            }
+            if (closed || physical.isClosed() || pooled.isExpired(System.currentTimeMillis(), config.getMaxLifetimeMs())) {
+                destroy(pooled);
+                return;
+            }
+
+            // Never hand out a connection with a half-finished transaction
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+
+            pooled.markReturned();
+            idleConnections.offerFirst(pooled);
+        } catch (SQLException e) {
+            System.err.println("Error releasing connection: " + e.getMessage());
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeper. Borrowed connections
+     * are closed as they are released.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        unregisterMBean();
+
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Takes an idle connection or opens a new one. The caller must hold a permit.
+     */
+    private PooledConnection acquire(long deadline) throws SQLException {
+        while (true) {
+            PooledConnection pooled = idleConnections.pollFirst();
+
+            if (pooled == null) {
+                if (reserveSlot()) {
+                    return openConnection();
+                }
+
+                // Every slot is taken but we hold a permit, so one is on its way back to the idle queue
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw timeoutException();
+                }
+                try {
+                    pooled = idleConnections.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+                if (pooled == null) {
+                    throw timeoutException();
+                }
+            }
+
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Checks an idle connection before handing it out. Only connections that have been
+     * idle longer than the validation threshold cost a round trip.
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            long now = System.currentTimeMillis();
+            return !pooled.isBroken()
+                    && !pooled.getConnection().isClosed()
+                    && !pooled.isExpired(now, config.getMaxLifetimeMs())
+                    && (!pooled.needsValidation(now, config.getValidationIdleMs()) || validate(pooled));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs a timed isValid() round trip against the server
+     */
+    private boolean validate(PooledConnection pooled) {
+        long start = System.nanoTime();
+        boolean valid;
+        try {
+            valid = pooled.getConnection().isValid(1);
+        } catch (SQLException e) {
+            valid = false;
+        }
+        metrics.getValidationTime().recordSince(start);
+        if (valid) {
+            pooled.markValidated();
+        } else {
+            metrics.validationFailed();
+        }
+        return valid;
+    }
+
+    /**
+     * Claims one of the maxSize connection slots
+     */
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Opens a physical connection for a slot that has already been reserved
+     */
+    private PooledConnection openConnection() throws SQLException {
+        try {
+            Connection conn = DriverManager.getConnection(url, props);
+            if (readOnly) {
+                conn.setReadOnly(true);
+            }
+            PooledConnection pooled = new PooledConnection(conn, config.getStatementCacheSize());
+            metrics.connectionCreated();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes a physical connection and frees its slot
+     */
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        metrics.connectionClosed();
+        pooled.getStatementCache().clear();
+        closeQuietly(pooled.getConnection());
+    }
+
+    /**
+     * Opens connections until the pool holds at least minSize
+     */
+    private void fillToMinimum() throws SQLException {
+        while (!closed && totalConnections.get() < config.getMinSize() && reserveSlot()) {
+            idleConnections.offerLast(openConnection());
+        }
+    }
+
+    /**
+     * Periodic maintenance: eviction, leak detection and refilling to the minimum size
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Retire expired connections and trim idle ones above the minimum size
+            for (PooledConnection pooled : idleConnections) {
+                boolean expired = pooled.isExpired(now, config.getMaxLifetimeMs());
+                boolean idleTooLong = config.getIdleTimeoutMs() > 0
+                        && now - pooled.getLastReturnedAt() >= config.getIdleTimeoutMs()
+                        && totalConnections.get() > config.getMinSize();
+
+                if ((expired || idleTooLong) && idleConnections.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            // Keepalive: validate connections that have sat idle, taking each out of the queue while it is checked
+            for (PooledConnection pooled : idleConnections) {
+                if (pooled.needsValidation(now, config.getValidationIdleMs()) && idleConnections.remove(pooled)) {
+                    if (!closed && validate(pooled)) {
+                        idleConnections.offerLast(pooled);
+                    } else {
+                        destroy(pooled);
+                    }
+                }
+            }
+
+            // Report connections held longer than the leak threshold
+            long leakThreshold = config.getLeakDetectionThresholdMs();
+            if (leakThreshold > 0) {
+                for (PooledConnection pooled : borrowedConnections.values()) {
+                    long heldFor = now - pooled.getBorrowedAt();
+                    if (heldFor >= leakThreshold && !pooled.isLeakReported()) {
+                        pooled.setLeakReported(true);
+                        metrics.leakDetected();
+                        System.err.println("Possible connection leak in pool '" + name + "': connection held by thread '"
+                                + pooled.getBorrowerThread() + "' for " + heldFor + " ms");
+                        Throwable stack = pooled.getBorrowerStack();
+                        if (stack != null) {
+                            stack.printStackTrace();
+                        }
+                    }
+                }
+            }
+
+            fillToMinimum();
+            ready = true;
+        } catch (Exception e) {
+            System.err.println("Error during connection pool housekeeping: " + e.getMessage());
+        }
+    }
+
+    private SQLException timeoutException() {
+        metrics.borrowTimedOut();
+        return new SQLTransientConnectionException("Connection pool '" + name + "' timed out after "
+                + config.getConnectionTimeoutMs() + " ms waiting for a connection (active="
+                + borrowedConnections.size() + ", idle=" + idleConnections.size()
+                + ", max=" + config.getMaxSize() + ")", "08001");
+    }
+
+    private ObjectName objectName() throws Exception {
+        return new ObjectName("com.peerq:type=ConnectionPool,name=" + ObjectName.quote(name));
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not register JMX bean for pool '" + name + "': " + e.getMessage());
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not unregister JMX bean for pool '" + name + "': " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Ignore
+        }
+    }
+
+    // Pool state
+
+    public String getName() {
+        return name;
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Checks whether the pool has opened its minimum number of connections at least once
+     */
+    public boolean isReady() {
+        return ready && !closed;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return borrowedConnections.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    @Override
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public int getMinSize() {
+        return config.getMinSize();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return config.getMaxSize();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return metrics.getConnectionsCreated();
+    }
+
+    @Override
+    public long getConnectionsClosed() {
+        return metrics.getConnectionsClosed();
+    }
+
+    @Override
+    public long getBorrowTimeouts() {
+        return metrics.getBorrowTimeouts();
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return metrics.getValidationFailures();
+    }
+
+    @Override
+    public long getBrokenConnections() {
+        return metrics.getBrokenConnections();
+    }
+
+    @Override
+    public long getLeaksDetected() {
+        return metrics.getLeaksDetected();
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return metrics.getStatementCacheHits();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return metrics.getStatementCacheMisses();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return metrics.getBorrowWait().getCount();
+    }
+
+    @Override
+    public double getBorrowWaitMeanMillis() {
+        return metrics.getBorrowWait().getMeanMillis();
+    }
+
+    @Override
+    public double getBorrowWaitP99Millis() {
+        return metrics.getBorrowWait().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getBorrowWaitMaxMillis() {
+        return metrics.getBorrowWait().getMaxMillis();
+    }
+
+    @Override
+    public double getHoldTimeMeanMillis() {
+        return metrics.getHoldTime().getMeanMillis();
+    }
+
+    @Override
+    public double getHoldTimeP99Millis() {
+        return metrics.getHoldTime().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getHoldTimeMaxMillis() {
+        return metrics.getHoldTime().getMaxMillis();
+    }
+
+    @Override
+    public double getValidationTimeMeanMillis() {
+        return metrics.getValidationTime().getMeanMillis();
+    }
+
+    @Override
+    public double getValidationTimeP99Millis() {
+        return metrics.getValidationTime().getPercentileMillis(99);
+    }
+}
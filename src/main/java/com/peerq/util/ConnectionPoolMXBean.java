@@ -0,0 +1,35 @@
+package com.peerq.util;
+
+/**
+ * JMX view of a {@link ConnectionPool}, registered as com.peerq:type=ConnectionPool,name=&lt;pool&gt;.
+ */
+public interface ConnectionPoolMXBean {
+    // Gauges
+    int getActiveConnections();
+    int getIdleConnections();
+    int getTotalConnections();
+    int getWaitingThreads();
+    int getMinSize();
+    int getMaxSize();
+
+    // Counters
+    long getConnectionsCreated();
+    long getConnectionsClosed();
+    long getBorrowTimeouts();
+    long getValidationFailures();
+    long getBrokenConnections();
+    long getLeaksDetected();
+    long getStatementCacheHits();
+    long getStatementCacheMisses();
+
+    // Latencies in milliseconds
+    long getBorrowCount();
+    double getBorrowWaitMeanMillis();
+    double getBorrowWaitP99Millis();
+    double getBorrowWaitMaxMillis();
+    double getHoldTimeMeanMillis();
+    double getHoldTimeP99Millis();
+    double getHoldTimeMaxMillis();
+    double getValidationTimeMeanMillis();
+    double getValidationTimeP99Millis();
+}
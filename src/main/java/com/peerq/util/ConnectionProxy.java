@@ -0,0 +1,255 @@
+package com.peerq.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle given to callers for a single borrow of a pooled connection.
+ *
+ * The proxy forwards every call to the physical connection, except that close()
+ * returns it to the pool and any use after it has been returned fails. Statements
+ * created through it are wrapped as well so that a failed statement whose SQLState
+ * says the connection is gone marks the connection broken; the pool then discards
+ * it on release instead of validating every connection with a round trip.
+ *
+ * prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are served
+ * from the connection's {@link StatementCache}; closing such a statement hands it
+ * back to the cache instead of destroying it.
+ *
+ * Updates executed through a writable pool are recorded with {@link ReadConsistency}
+ * so the session's following reads go to the primary.
+ */
+final class ConnectionProxy implements InvocationHandler {
+    private final ConnectionPool pool;
+    private final PooledConnection pooled;
+    private final Connection proxy;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private ConnectionProxy(ConnectionPool pool, PooledConnection pooled) {
+        this.pool = pool;
+        this.pooled = pooled;
+        this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, this);
+    }
+
+    /**
+     * Creates the caller-facing proxy for a newly borrowed connection
+     */
+    static Connection wrap(ConnectionPool pool, PooledConnection pooled) {
+        return new ConnectionProxy(pool, pooled).proxy;
+    }
+
+    /**
+     * Looks up the handler behind a connection handed out by a pool
+     *
+     * @return the handler, or null if the connection did not come from a pool
+     */
+    static ConnectionProxy of(Connection conn) {
+        if (conn != null && Proxy.isProxyClass(conn.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(conn);
+            if (handler instanceof ConnectionProxy) {
+                return (ConnectionProxy) handler;
+            }
+        }
+        return null;
+    }
+
+    ConnectionPool getPool() {
+        return pool;
+    }
+
+    PooledConnection getPooled() {
+        return pooled;
+    }
+
+    /**
+     * Flags this borrow as returned
+     *
+     * @return false if it had already been returned
+     */
+    boolean markReleased() {
+        return released.compareAndSet(false, true);
+    }
+
+    /**
+     * Marks the connection broken if an exception's SQLState says the session is unusable.
+     * Class 08 covers connection exceptions; 57P01-57P03 are server shutdowns and restarts.
+     */
+    static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08")
+                || state.equals("57P01") || state.equals("57P02") || state.equals("57P03"));
+    }
+
+    private void inspect(Throwable cause) {
+        if (cause instanceof SQLException && isFatal((SQLException) cause)) {
+            pooled.markBroken();
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return target == args[0];
+            case "hashCode":
+                return System.identityHashCode(target);
+            case "toString":
+                return "ConnectionProxy[" + pooled.getConnection() + "]";
+            case "close":
+                pool.release(proxy);
+                return null;
+            case "isClosed":
+                if (released.get()) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (released.get()) {
+            throw new SQLException("Connection has already been returned to the pool", "08003");
+        }
+
+        String cacheKey = cacheKey(method, args);
+        if (cacheKey != null && pooled.getStatementCache().isEnabled()) {
+            PreparedStatement cached = pooled.getStatementCache().take(cacheKey);
+            if (cached != null) {
+                pool.getMetrics().statementCacheHit();
+                return wrapStatement(cached, PreparedStatement.class, cacheKey);
+            }
+            pool.getMetrics().statementCacheMiss();
+        }
+
+        try {
+            Object result = method.invoke(pooled.getConnection(), args);
+            if (result instanceof Statement) {
+                return wrapStatement((Statement) result, method.getReturnType(), cacheKey);
+            }
+            return result;
+        } catch (InvocationTargetException e) {
+            inspect(e.getCause());
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Builds the statement cache key for cacheable prepareStatement() overloads
+     *
+     * @return the key, or null if the call should bypass the cache
+     */
+    private static String cacheKey(Method method, Object[] args) {
+        if (!method.getName().equals("prepareStatement")) {
+            return null;
+        }
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        if (args.length == 2 && args[1] instanceof Integer) {
+            return (Integer) args[1] == Statement.RETURN_GENERATED_KEYS ? "keys:" + args[0] : (String) args[0];
+        }
+        return null;
+    }
+
+    /**
+     * Wraps a statement so its failures are inspected and getConnection() returns the proxy
+     *
+     * @param cacheKey Key to return the statement to the cache under on close, or null to really close it
+     */
+    private Object wrapStatement(Statement statement, Class<?> type, String cacheKey) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new StatementHandler(statement, cacheKey));
+    }
+
+    /**
+     * Invocation handler for statements created through the proxy
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String cacheKey;
+        private boolean closed = false;
+        // Set when the caller changes settings that would leak into the next user
+        private boolean modified = false;
+
+        StatementHandler(Statement statement, String cacheKey) {
+            this.statement = statement;
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return target == args[0];
+                case "hashCode":
+                    return System.identityHashCode(target);
+                case "getConnection":
+                    return proxy;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "close":
+                    close();
+                    return null;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (!pool.isReadOnly() && (name.equals("executeUpdate") || name.equals("executeLargeUpdate")
+                    || name.equals("executeBatch") || name.equals("execute"))) {
+                ReadConsistency.recordWrite();
+            }
+            if (name.startsWith("setFetch") || name.startsWith("setMax") || name.startsWith("setLargeMax")
+                    || name.equals("setQueryTimeout") || name.equals("setEscapeProcessing")
+                    || name.equals("setCursorName") || name.equals("setPoolable")) {
+                modified = true;
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                inspect(e.getCause());
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Returns the statement to the connection's cache, or closes it if it cannot be reused
+         */
+        private void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (cacheKey != null && !modified && !released.get() && !pooled.isBroken() && !statement.isClosed()) {
+                try {
+                    ResultSet rs = statement.getResultSet();
+                    if (rs != null) {
+                        rs.close();
+                    }
+                    ((PreparedStatement) statement).clearParameters();
+                    statement.clearWarnings();
+                    if (pooled.getStatementCache().put(cacheKey, (PreparedStatement) statement)) {
+                        return;
+                    }
+                } catch (SQLException e) {
+                    inspect(e);
+                }
+            }
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.peerq.util;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executor for running DAO calls off the calling thread.
+ *
+ * It has one thread per connection the pools can hand out, so a task never waits
+ * on the pool for a connection another task of this executor holds. Extra work
+ * queues up to DB_EXECUTOR_QUEUE_SIZE tasks (default 500). Beyond that, futures
+ * fail with a RejectedExecutionException instead of piling up.
+ *
+ * With PEERQ_VIRTUAL_THREADS=true on Java 21+, each call gets its own virtual thread
+ * instead. There is no queue to overflow then: calls wait on the connection pool's
+ * fair semaphore, where a parked virtual thread costs next to nothing.
+ */
+public class DBExecutor {
+    private static final int QUEUE_SIZE = (int) PoolConfig.getLongEnv("DB_EXECUTOR_QUEUE_SIZE", 500);
+
+    private static volatile ExecutorService executor;
+
+    /**
+     * A database call that may throw SQLException
+     */
+    @FunctionalInterface
+    public interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+
+    private DBExecutor() {
+    }
+
+    /**
+     * Runs a database call on the executor
+     *
+     * The caller's read-your-writes state is shared with the executor thread, so that
+     * reads issued right after the caller's own writes still go to the primary, and a
+     * write made by the call counts as the caller's own once the future completes.
+     *
+     * @param call The call to run
+     * @return a future completed with the call's result, or exceptionally with a
+     *         CompletionException wrapping the SQLException it threw
+     */
+    public static <T> CompletableFuture<T> supplyAsync(SqlSupplier<T> call) {
+        ReadConsistency.State readConsistency = ReadConsistency.share();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                ReadConsistency.attach(readConsistency);
+                try {
+                    return call.get();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    ReadConsistency.clear();
+                }
+            }, getExecutor());
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * Checks whether virtual threads were requested with PEERQ_VIRTUAL_THREADS
+     */
+    public static boolean isVirtualThreadsRequested() {
+        return Boolean.parseBoolean(System.getenv("PEERQ_VIRTUAL_THREADS"));
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task
+     *
+     * The project compiles for Java 11, so the Java 21 factory method is looked up reflectively.
+     *
+     * @return the executor, or null if the running JVM has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lazily creates the executor, sized to the configured pool maximums
+     */
+    private static ExecutorService getExecutor() {
+        ExecutorService current = executor;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (DBExecutor.class) {
+            if (executor == null && isVirtualThreadsRequested()) {
+                executor = newVirtualThreadExecutor();
+            }
+            if (executor == null) {
+                int threads = Math.max(1, DBConnection.getMaxConnections());
+
+                AtomicInteger counter = new AtomicInteger();
+                ThreadPoolExecutor created = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, QUEUE_SIZE)), runnable -> {
+                            Thread thread = new Thread(runnable, "db-executor-" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                created.allowCoreThreadTimeOut(true);
+                executor = created;
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Stops accepting new work; queued calls still run
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.peerq.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed, roughly logarithmic buckets from 50 µs to 10 s.
+ * Recording is a couple of atomic increments, so it is cheap enough for the pool hot path.
+ */
+public class LatencyHistogram {
+    // Bucket upper bounds in microseconds; the last bucket catches everything above
+    private static final long[] BOUNDS_MICROS = {
+            50, 100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one observation
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos));
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sumMicros.sum() / 1000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    public double getSumSeconds() {
+        return sumMicros.sum() / 1_000_000.0;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket containing it
+     *
+     * @param percentile Value between 0 and 100
+     * @return Estimated latency in milliseconds, or 0 when nothing has been recorded
+     */
+    public double getPercentileMillis(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[buckets.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] / 1000.0 : getMaxMillis();
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Appends this histogram in Prometheus text exposition format
+     *
+     * @param out Buffer to append to
+     * @param metric Metric name, e.g. "peerq_db_pool_borrow_wait_seconds"
+     * @param labels Label set without braces, e.g. "pool=\"primary\""
+     */
+    public void appendPrometheus(StringBuilder out, String metric, String labels) {
+        out.append("# TYPE ").append(metric).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            cumulative += buckets.get(i);
+            String le = i < BOUNDS_MICROS.length ? Double.toString(BOUNDS_MICROS[i] / 1_000_000.0) : "+Inf";
+            out.append(metric).append("_bucket{").append(labels).append(",le=\"").append(le).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append(metric).append("_sum{").append(labels).append("} ").append(getSumSeconds()).append('\n');
+        out.append(metric).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,57 @@
+package com.peerq.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs periodic background maintenance jobs, such as repairing denormalized counters,
+ * on a single daemon thread.
+ */
+public class MaintenanceScheduler {
+    private static ScheduledExecutorService scheduler;
+
+    private MaintenanceScheduler() {
+    }
+
+    /**
+     * Schedules a job at a fixed delay; the first run happens after one interval
+     *
+     * @param name Name used in log messages
+     * @param job The job to run
+     * @param intervalMs Delay between runs in milliseconds; 0 or less disables the job
+     */
+    public static synchronized void schedule(String name, Runnable job, long intervalMs) {
+        if (intervalMs <= 0) {
+            System.out.println("Maintenance job '" + name + "' is disabled.");
+            return;
+        }
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                job.run();
+            } catch (RuntimeException e) {
+                // Keep the job scheduled; an uncaught exception would cancel it
+                System.err.println("Maintenance job '" + name + "' failed: " + e.getMessage());
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops all maintenance jobs
+     */
+    public static synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.peerq.util;
+
+/**
+ * Sizing and timeout settings for a {@link ConnectionPool}.
+ * Values are read from environment variables sharing a common prefix,
+ * e.g. DB_POOL_MAX_SIZE, falling back to defaults when unset or invalid.
+ */
+public class PoolConfig {
+    // Defaults
+    private static final int DEFAULT_MIN_SIZE = 2;
+    private static final int DEFAULT_MAX_SIZE = 5;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 5_000;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 30 * 60_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 10 * 60_000;
+    private static final long DEFAULT_LEAK_DETECTION_MS = 60_000;
+    private static final long DEFAULT_VALIDATION_IDLE_MS = 30_000;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long idleTimeoutMs;
+    private final long leakDetectionThresholdMs;
+    private final long validationIdleMs;
+    private final int statementCacheSize;
+
+    /**
+     * Constructor with all settings
+     *
+     * @param minSize Connections kept open even when idle
+     * @param maxSize Upper bound on open connections
+     * @param connectionTimeoutMs Maximum time a caller waits for a connection
+     * @param maxLifetimeMs Age after which a connection is retired (0 disables)
+     * @param idleTimeoutMs Idle time after which connections above minSize are closed (0 disables)
+     * @param leakDetectionThresholdMs Borrow time after which a leak is reported (0 disables)
+     * @param validationIdleMs Idle time after which a connection is validated before reuse
+     *                         and by the background keepalive
+     * @param statementCacheSize Prepared statements cached per connection (0 disables)
+     */
+    public PoolConfig(int minSize, int maxSize, long connectionTimeoutMs, long maxLifetimeMs,
+                      long idleTimeoutMs, long leakDetectionThresholdMs, long validationIdleMs,
+                      int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool max size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.minSize = Math.max(0, Math.min(minSize, maxSize));
+        this.connectionTimeoutMs = Math.max(0, connectionTimeoutMs);
+        this.maxLifetimeMs = Math.max(0, maxLifetimeMs);
+        this.idleTimeoutMs = Math.max(0, idleTimeoutMs);
+        this.leakDetectionThresholdMs = Math.max(0, leakDetectionThresholdMs);
+        this.validationIdleMs = Math.max(0, validationIdleMs);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+    }
+
+    /**
+     * Reads pool settings from environment variables
+     *
+     * @param prefix Variable prefix, e.g. "DB_POOL_"
+     * @return The pool configuration
+     */
+    public static PoolConfig fromEnvironment(String prefix) {
+        return new PoolConfig(
+                (int) getLongEnv(prefix + "MIN_SIZE", DEFAULT_MIN_SIZE),
+                (int) getLongEnv(prefix + "MAX_SIZE", DEFAULT_MAX_SIZE),
+                getLongEnv(prefix + "CONNECTION_TIMEOUT_MS", DEFAULT_CONNECTION_TIMEOUT_MS),
+                getLongEnv(prefix + "MAX_LIFETIME_MS", DEFAULT_MAX_LIFETIME_MS),
+                getLongEnv(prefix + "IDLE_TIMEOUT_MS", DEFAULT_IDLE_TIMEOUT_MS),
+                getLongEnv(prefix + "LEAK_DETECTION_MS", DEFAULT_LEAK_DETECTION_MS),
+                getLongEnv(prefix + "VALIDATION_IDLE_MS", DEFAULT_VALIDATION_IDLE_MS),
+                (int) getLongEnv(prefix + "STATEMENT_CACHE_SIZE", DEFAULT_STATEMENT_CACHE_SIZE));
+    }
+
+    /**
+     * Reads a numeric environment variable, falling back to a default
+     */
+    public static long getLongEnv(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    // Getters
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public long getMaxLifetimeMs() {
+        return maxLifetimeMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public long getValidationIdleMs() {
+        return validationIdleMs;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", connectionTimeoutMs=" + connectionTimeoutMs +
+                ", maxLifetimeMs=" + maxLifetimeMs +
+                ", idleTimeoutMs=" + idleTimeoutMs +
+                ", leakDetectionThresholdMs=" + leakDetectionThresholdMs +
+                ", validationIdleMs=" + validationIdleMs +
+                ", statementCacheSize=" + statementCacheSize +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+package com.peerq.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms collected by a {@link ConnectionPool}.
+ */
+public class PoolMetrics {
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+    private final LatencyHistogram validationTime = new LatencyHistogram();
+
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsClosed = new LongAdder();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder brokenConnections = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /** Time callers spend in getConnection(), including queueing for a permit */
+    public LatencyHistogram getBorrowWait() {
+        return borrowWait;
+    }
+
+    /** Time between a connection being borrowed and released */
+    public LatencyHistogram getHoldTime() {
+        return holdTime;
+    }
+
+    /** Time spent in Connection.isValid() checks */
+    public LatencyHistogram getValidationTime() {
+        return validationTime;
+    }
+
+    void connectionCreated() {
+        connectionsCreated.increment();
+    }
+
+    void connectionClosed() {
+        connectionsClosed.increment();
+    }
+
+    void borrowTimedOut() {
+        borrowTimeouts.increment();
+    }
+
+    void validationFailed() {
+        validationFailures.increment();
+    }
+
+    void connectionBroken() {
+        brokenConnections.increment();
+    }
+
+    void leakDetected() {
+        leaksDetected.increment();
+    }
+
+    void statementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void statementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    public long getConnectionsClosed() {
+        return connectionsClosed.sum();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.sum();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    public long getBrokenConnections() {
+        return brokenConnections.sum();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.sum();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+}
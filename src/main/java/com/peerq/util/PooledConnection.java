@@ -0,0 +1,122 @@
+package com.peerq.util;
+
+import java.sql.Connection;
+
+/**
+ * Bookkeeping for a physical connection owned by a {@link ConnectionPool}.
+ */
+class PooledConnection {
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private final long createdAt;
+    private volatile long lastReturnedAt;
+    private volatile long lastValidatedAt;
+    private volatile boolean broken;
+
+    // Borrow state, only meaningful while the connection is checked out
+    private volatile long borrowedAt;
+    private volatile long borrowedAtNanos;
+    private volatile String borrowerThread;
+    private volatile Throwable borrowerStack;
+    private volatile boolean leakReported;
+
+    PooledConnection(Connection connection, int statementCacheSize) {
+        this.connection = connection;
+        this.statementCache = new StatementCache(statementCacheSize);
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+        this.lastValidatedAt = createdAt;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * Flags the connection as unusable after a fatal error
+     */
+    void markBroken() {
+        broken = true;
+    }
+
+    void markValidated() {
+        lastValidatedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks whether the connection has sat unused long enough that it should be
+     * validated before being trusted again
+     */
+    boolean needsValidation(long now, long validationIdleMs) {
+        return now - Math.max(lastReturnedAt, lastValidatedAt) >= validationIdleMs;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    long getBorrowedAtNanos() {
+        return borrowedAtNanos;
+    }
+
+    String getBorrowerThread() {
+        return borrowerThread;
+    }
+
+    Throwable getBorrowerStack() {
+        return borrowerStack;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    /**
+     * Records who borrowed the connection
+     *
+     * @param captureStack Whether to capture the borrower's stack for leak reports
+     */
+    void markBorrowed(boolean captureStack) {
+        borrowedAt = System.currentTimeMillis();
+        borrowedAtNanos = System.nanoTime();
+        borrowerThread = Thread.currentThread().getName();
+        borrowerStack = captureStack ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+    }
+
+    /**
+     * Clears the borrow state when the connection goes back to the pool
+     */
+    void markReturned() {
+        lastReturnedAt = System.currentTimeMillis();
+        borrowerThread = null;
+        borrowerStack = null;
+    }
+
+    /**
+     * Checks whether the connection has outlived the configured maximum lifetime
+     */
+    boolean isExpired(long now, long maxLifetimeMs) {
+        return maxLifetimeMs > 0 && now - createdAt >= maxLifetimeMs;
+    }
+}
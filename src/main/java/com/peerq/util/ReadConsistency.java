@@ -0,0 +1,91 @@
+package com.peerq.util;
+
+/**
+ * Tracks when the current caller last wrote to the primary so that its reads can be
+ * pinned to the primary until a read replica has had time to catch up.
+ *
+ * The state is per thread. The web layer copies it to and from the HTTP session
+ * around each request, which turns it into a per-session window. DBExecutor shares
+ * the caller's state with the thread running each call, so writes made there count
+ * as the caller's own. The window length is set with DB_READ_YOUR_WRITES_MS
+ * (default 5000).
+ */
+public final class ReadConsistency {
+    private static final long WINDOW_MS = PoolConfig.getLongEnv("DB_READ_YOUR_WRITES_MS", 5_000);
+    private static final ThreadLocal<State> state = new ThreadLocal<>();
+
+    /**
+     * A caller's last-write time, which may be shared with the threads running its calls
+     */
+    public static final class State {
+        private volatile Long lastWriteAt;
+
+        private State(Long lastWriteAt) {
+            this.lastWriteAt = lastWriteAt;
+        }
+    }
+
+    private ReadConsistency() {
+    }
+
+    /**
+     * Records that the current caller has just written to the primary
+     */
+    public static void recordWrite() {
+        setLastWriteAt(System.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether reads must go to the primary to observe the caller's own writes
+     */
+    public static boolean requiresPrimary() {
+        Long writtenAt = getLastWriteAt();
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < WINDOW_MS;
+    }
+
+    /**
+     * Gets the time of the caller's last write, or null if there was none
+     */
+    public static Long getLastWriteAt() {
+        State current = state.get();
+        return current != null ? current.lastWriteAt : null;
+    }
+
+    /**
+     * Restores a previously saved last-write time for the current thread
+     */
+    public static void setLastWriteAt(Long writtenAt) {
+        State current = state.get();
+        if (current != null) {
+            current.lastWriteAt = writtenAt;
+        } else if (writtenAt != null) {
+            state.set(new State(writtenAt));
+        }
+    }
+
+    /**
+     * Gets the current thread's state, creating it if needed, to share with another thread
+     */
+    public static State share() {
+        State current = state.get();
+        if (current == null) {
+            current = new State(null);
+            state.set(current);
+        }
+        return current;
+    }
+
+    /**
+     * Makes the current thread read and record writes through a state shared by another thread
+     */
+    public static void attach(State shared) {
+        state.set(shared);
+    }
+
+    /**
+     * Clears the state for the current thread
+     */
+    public static void clear() {
+        state.remove();
+    }
+}
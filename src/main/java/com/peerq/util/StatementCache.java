@@ -0,0 +1,89 @@
+package com.peerq.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ *
+ * A statement is removed from the cache while it is in use and put back when the caller
+ * closes it, so two concurrent uses of the same SQL never share a statement. Reusing the
+ * same PreparedStatement object also lets the PostgreSQL driver switch to a named
+ * server-side statement once it passes its prepareThreshold, skipping parse and plan.
+ */
+class StatementCache {
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Takes a cached statement out of the cache
+     *
+     * @param key Cache key built from the SQL text
+     * @return the statement, or null on a miss
+     */
+    synchronized PreparedStatement take(String key) {
+        return statements.remove(key);
+    }
+
+    /**
+     * Returns a statement to the cache, evicting the least recently used one if full
+     *
+     * @return true if it was cached, false if the caller should close it instead
+     */
+    boolean put(String key, PreparedStatement statement) {
+        PreparedStatement evicted = null;
+        synchronized (this) {
+            if (!isEnabled() || statements.containsKey(key)) {
+                return false;
+            }
+            if (statements.size() >= maxSize) {
+                Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+                evicted = eldest.next().getValue();
+                eldest.remove();
+            }
+            statements.put(key, statement);
+        }
+        if (evicted != null) {
+            closeQuietly(evicted);
+        }
+        return true;
+    }
+
+    /**
+     * Closes and forgets every cached statement
+     */
+    void clear() {
+        PreparedStatement[] cached;
+        synchronized (this) {
+            cached = statements.values().toArray(new PreparedStatement[0]);
+            statements.clear();
+        }
+        for (PreparedStatement statement : cached) {
+            closeQuietly(statement);
+        }
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.peerq.web;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.peerq.util.DBConnection;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Servlet for health checks.
+ * /health/live answers as soon as the server is up; /health/ready returns 503
+ * until the database connection pool has finished warming up.
+ */
+public class HealthServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private final Gson gson = new Gson();
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        String pathInfo = request.getPathInfo();
+        JsonObject responseBody = new JsonObject();
+
+        if (pathInfo == null || pathInfo.equals("/") || pathInfo.equals("/live")) {
+            responseBody.addProperty("status", "UP");
+            sendJsonResponse(response, HttpServletResponse.SC_OK, responseBody);
+        } else if (pathInfo.equals("/ready")) {
+            boolean ready = DBConnection.isReady();
+            responseBody.addProperty("status", ready ? "UP" : "WARMING_UP");
+            responseBody.addProperty("database", ready);
+            sendJsonResponse(response, ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    responseBody);
+        } else {
+            responseBody.addProperty("success", false);
+            responseBody.addProperty("message", "Endpoint not found");
+            sendJsonResponse(response, HttpServletResponse.SC_NOT_FOUND, responseBody);
+        }
+    }
+
+    /**
+     * Utility method to send JSON responses
+     */
+    private void sendJsonResponse(HttpServletResponse response, int status, JsonObject body) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        PrintWriter out = response.getWriter();
+        out.print(gson.toJson(body));
+        out.flush();
+    }
+}
@@ -0,0 +1,89 @@
+package com.peerq.web;
+
+import com.peerq.cache.TtlCache;
+import com.peerq.util.ConnectionPool;
+import com.peerq.util.DBConnection;
+import com.peerq.util.PoolMetrics;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Servlet exposing connection pool gauges, counters and latency histograms, and
+ * in-process cache statistics, in the Prometheus text exposition format.
+ */
+public class MetricsServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final String PREFIX = "peerq_db_pool_";
+    private static final String CACHE_PREFIX = "peerq_cache_";
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        StringBuilder out = new StringBuilder(4096);
+
+        for (ConnectionPool pool : DBConnection.getPools()) {
+            String labels = "pool=\"" + pool.getName() + "\"";
+            PoolMetrics metrics = pool.getMetrics();
+
+            // Gauges
+            appendMetric(out, "active_connections", "gauge", labels, pool.getActiveConnections());
+            appendMetric(out, "idle_connections", "gauge", labels, pool.getIdleConnections());
+            appendMetric(out, "total_connections", "gauge", labels, pool.getTotalConnections());
+            appendMetric(out, "waiting_threads", "gauge", labels, pool.getWaitingThreads());
+            appendMetric(out, "max_connections", "gauge", labels, pool.getMaxSize());
+
+            // Counters
+            appendMetric(out, "connections_created_total", "counter", labels, metrics.getConnectionsCreated());
+            appendMetric(out, "connections_closed_total", "counter", labels, metrics.getConnectionsClosed());
+            appendMetric(out, "borrow_timeouts_total", "counter", labels, metrics.getBorrowTimeouts());
+            appendMetric(out, "validation_failures_total", "counter", labels, metrics.getValidationFailures());
+            appendMetric(out, "broken_connections_total", "counter", labels, metrics.getBrokenConnections());
+            appendMetric(out, "leaks_detected_total", "counter", labels, metrics.getLeaksDetected());
+            appendMetric(out, "statement_cache_hits_total", "counter", labels, metrics.getStatementCacheHits());
+            appendMetric(out, "statement_cache_misses_total", "counter", labels, metrics.getStatementCacheMisses());
+
+            // Histograms
+            metrics.getBorrowWait().appendPrometheus(out, PREFIX + "borrow_wait_seconds", labels);
+            metrics.getHoldTime().appendPrometheus(out, PREFIX + "hold_seconds", labels);
+            metrics.getValidationTime().appendPrometheus(out, PREFIX + "validation_seconds", labels);
+        }
+
+        for (TtlCache<?, ?> cache : TtlCache.getCaches()) {
+            String labels = "cache=\"" + cache.getName() + "\"";
+
+            appendMetric(out, CACHE_PREFIX, "size", "gauge", labels, cache.size());
+            appendMetric(out, CACHE_PREFIX, "max_size", "gauge", labels, cache.getMaxSize());
+            appendMetric(out, CACHE_PREFIX, "hit_ratio", "gauge", labels, cache.getHitRatio());
+            appendMetric(out, CACHE_PREFIX, "hits_total", "counter", labels, cache.getHits());
+            appendMetric(out, CACHE_PREFIX, "misses_total", "counter", labels, cache.getMisses());
+            appendMetric(out, CACHE_PREFIX, "evictions_total", "counter", labels, cache.getEvictions());
+            appendMetric(out, CACHE_PREFIX, "invalidations_total", "counter", labels, cache.getInvalidations());
+            appendMetric(out, CACHE_PREFIX, "coalesced_total", "counter", labels, cache.getCoalesced());
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+        writer.print(out);
+        writer.flush();
+    }
+
+    /**
+     * Appends a single-sample metric with its type line
+     */
+    private void appendMetric(StringBuilder out, String name, String type, String labels, long value) {
+        appendMetric(out, PREFIX, name, type, labels, value);
+    }
+
+    private void appendMetric(StringBuilder out, String prefix, String name, String type, String labels, Number value) {
+        out.append("# TYPE ").append(prefix).append(name).append(' ').append(type).append('\n');
+        out.append(prefix).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+}
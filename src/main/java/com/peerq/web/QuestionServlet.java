@@ -1,12 +1,27 @@
 package com.peerq.web;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.peerq.cache.CachedResponse;
+import com.peerq.cache.ListKey;
+import com.peerq.cache.QuestionCaches;
+import com.peerq.cache.TtlCache;
 import com.peerq.dao.AnswerDAO;
+import com.peerq.dao.AsyncAnswerDAO;
+import com.peerq.dao.AsyncQuestionDAO;
+import com.peerq.dao.FacetDAO;
 import com.peerq.dao.QuestionDAO;
 import com.peerq.model.Answer;
+import com.peerq.model.FacetCount;
+import com.peerq.model.FacetSnapshot;
 import com.peerq.model.Question;
+import com.peerq.model.QuestionPage;
+import com.peerq.model.QuestionSearch;
 import com.peerq.model.User;
+import com.peerq.search.SearchIndex;
+import com.peerq.util.ReadConsistency;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -15,18 +30,30 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Servlet to handle question operations (create, view, answer)
  */
 public class QuestionServlet extends HttpServlet {
     private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    private static final int DEFAULT_TAG_FACETS = 20;
     private final Gson gson = new Gson();
     private final QuestionDAO questionDAO = new QuestionDAO();
     private final AnswerDAO answerDAO = new AnswerDAO();
+    private final FacetDAO facetDAO = new FacetDAO();
+    private final AsyncQuestionDAO asyncQuestionDAO = new AsyncQuestionDAO(questionDAO);
+    private final AsyncAnswerDAO asyncAnswerDAO = new AsyncAnswerDAO(answerDAO);
     
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -34,22 +61,133 @@ public class QuestionServlet extends HttpServlet {
         
         String pathInfo = request.getPathInfo();
         
-        // Get all questions or filter by category
+        // Get a page of questions, optionally filtered by tag, category or to unanswered ones
         if (pathInfo == null || pathInfo.equals("/")) {
             try {
-                // Check if category parameter is provided
                 String category = request.getParameter("category");
-                List<Question> questions;
-                
-                if (category != null && !category.isEmpty()) {
-                    // Get questions by category
-                    questions = questionDAO.getQuestionsByCategory(category);
-                } else {
-                    // Get all questions
-                    questions = questionDAO.getAllQuestions();
+                String tag = request.getParameter("tag");
+                String cursor = request.getParameter("cursor");
+                int limit = parseLimit(request.getParameter("limit"));
+                boolean unanswered = Boolean.parseBoolean(request.getParameter("unanswered"));
+                
+                // Identical list requests share one cached body, and one query on a miss
+                ListKey cacheKey = new ListKey(category, tag, cursor, limit, unanswered);
+                TtlCache<ListKey, CachedResponse> cache = QuestionCaches.lists();
+                CachedResponse cached = cache.getOrLoad(cacheKey, () -> {
+                    QuestionPage page;
+                    Long previousWriteAt = preferPrimarySince(cache.getInvalidatedAt(cacheKey));
+                    try {
+                        if (tag != null && !tag.trim().isEmpty()) {
+                            page = questionDAO.getQuestionsByTagPage(tag, category, cursor, limit, unanswered);
+                        } else if (unanswered) {
+                            page = questionDAO.getUnansweredQuestionsPage(category, cursor, limit);
+                        } else {
+                            page = questionDAO.getQuestionsPage(category, cursor, limit);
+                        }
+                    } finally {
+                        ReadConsistency.setLastWriteAt(previousWriteAt);
+                    }
+                    
+                    JsonObject responseBody = new JsonObject();
+                    responseBody.add("questions", gson.toJsonTree(page.getQuestions()));
+                    responseBody.addProperty("nextCursor", page.getNextCursor());
+                    return CachedResponse.of(gson.toJson(responseBody));
+                });
+                
+                sendCachedResponse(request, response, cached);
+            } catch (IllegalArgumentException e) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            } catch (SQLException e) {
+                // The failed load wasn't cached, so a retry queries the database again
+                System.err.println("Error getting questions page: " + e.getMessage());
+                sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Database unavailable, please retry");
+            } catch (Exception e) {
+                e.printStackTrace();
+                sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+            }
+            return;
+        }
+        
+        // Search with optional keywords, sort (relevance/newest/votes/answers),
+        // time window (day/week/month/year) and status (answered/unanswered/solved/open) filters
+        if (pathInfo.equals("/search")) {
+            try {
+                QuestionSearch search = new QuestionSearch(request.getParameter("q"));
+                search.setCategory(request.getParameter("category"));
+                search.setTag(request.getParameter("tag"));
+                search.setSort(QuestionSearch.Sort.fromParam(request.getParameter("sort")));
+                search.setTimeWindow(QuestionSearch.TimeWindow.fromParam(request.getParameter("time")));
+                search.setStatusParam(request.getParameter("status"));
+                String cursor = request.getParameter("cursor");
+                int limit = parseLimit(request.getParameter("limit"));
+                
+                QuestionPage page = questionDAO.searchQuestionsPage(search, cursor, limit);
+                
+                JsonObject responseBody = new JsonObject();
+                responseBody.add("questions", gson.toJsonTree(page.getQuestions()));
+                responseBody.addProperty("nextCursor", page.getNextCursor());
+                // Nothing found: offer a typo-corrected query from the search index
+                if (page.getQuestions().isEmpty() && search.hasQuery() && SearchIndex.getInstance().isReady()) {
+                    responseBody.addProperty("suggestion", SearchIndex.getInstance().suggest(search.getQuery()));
+                }
+                
+                sendJsonResponse(response, HttpServletResponse.SC_OK, gson.toJson(responseBody));
+            } catch (IllegalArgumentException e) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            } catch (SQLException e) {
+                System.err.println("Error searching questions: " + e.getMessage());
+                sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Database unavailable, please retry");
+            } catch (Exception e) {
+                e.printStackTrace();
+                sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+            }
+            return;
+        }
+        
+        // Hot feed: questions ranked by time-decayed answers, upvotes and accepts
+        if (pathInfo.equals("/hot")) {
+            try {
+                String cursor = request.getParameter("cursor");
+                int limit = parseLimit(request.getParameter("limit"));
+                
+                QuestionPage page = questionDAO.getHotQuestionsPage(cursor, limit);
+                
+                JsonObject responseBody = new JsonObject();
+                responseBody.add("questions", gson.toJsonTree(page.getQuestions()));
+                responseBody.addProperty("nextCursor", page.getNextCursor());
+                
+                sendJsonResponse(response, HttpServletResponse.SC_OK, gson.toJson(responseBody));
+            } catch (IllegalArgumentException e) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            } catch (SQLException e) {
+                System.err.println("Error getting hot questions: " + e.getMessage());
+                sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Database unavailable, please retry");
+            } catch (Exception e) {
+                e.printStackTrace();
+                sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+            }
+            return;
+        }
+        
+        // Question counts per category and for the most used tags
+        if (pathInfo.equals("/facets")) {
+            try {
+                int tagLimit = DEFAULT_TAG_FACETS;
+                String tagLimitParam = request.getParameter("tagLimit");
+                if (tagLimitParam != null && !tagLimitParam.isEmpty()) {
+                    tagLimit = Math.max(0, Integer.parseInt(tagLimitParam));
                 }
                 
-                sendJsonResponse(response, HttpServletResponse.SC_OK, gson.toJson(questions));
+                FacetSnapshot facets = facetDAO.getFacets();
+                List<FacetCount> tags = facets.getTags();
+                
+                JsonObject responseBody = new JsonObject();
+                responseBody.add("categories", gson.toJsonTree(facets.getCategories()));
+                responseBody.add("tags", gson.toJsonTree(tags.subList(0, Math.min(tagLimit, tags.size()))));
+                
+                sendJsonResponse(response, HttpServletResponse.SC_OK, gson.toJson(responseBody));
+            } catch (NumberFormatException e) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid tagLimit");
             } catch (Exception e) {
                 e.printStackTrace();
                 sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
@@ -57,36 +195,97 @@ public class QuestionServlet extends HttpServlet {
             return;
         }
         
+        // Export every question (optionally one category) as a single streamed JSON document
+        if (pathInfo.equals("/export")) {
+            exportQuestions(request, response);
+            return;
+        }
+        
         // Get a specific question
         try {
             // Extract question ID from path
             int questionId = Integer.parseInt(pathInfo.substring(1));
             
-            // Get question
-            Question question = questionDAO.getQuestionById(questionId);
+            CachedResponse cached = loadQuestionResponse(questionId);
             
-            if (question != null) {
-                // Get answers for this question
-                List<Answer> answers = answerDAO.getAnswersByQuestionId(questionId);
-                
-                // Build response
-                JsonObject responseBody = new JsonObject();
-                responseBody.addProperty("success", true);
-                responseBody.add("question", gson.toJsonTree(question));
-                responseBody.add("answers", gson.toJsonTree(answers));
-                
-                sendJsonResponse(response, HttpServletResponse.SC_OK, gson.toJson(responseBody));
+            if (cached != null) {
+                sendCachedResponse(request, response, cached);
             } else {
                 sendError(response, HttpServletResponse.SC_NOT_FOUND, "Question not found");
             }
         } catch (NumberFormatException e) {
             sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid question ID");
+        } catch (CompletionException e) {
+            // Failed loads aren't cached, so a retry queries the database again
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            cause.printStackTrace();
+            if (isDatabaseUnavailable(cause)) {
+                sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Database unavailable, please retry");
+            } else {
+                sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error: " + cause.getMessage());
+            }
         } catch (Exception e) {
             e.printStackTrace();
             sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error: " + e.getMessage());
         }
     }
     
+    /**
+     * Checks whether a load failed because the database couldn't serve it right now
+     * (a query or pool error, or a full executor queue) rather than because of a bug
+     */
+    private static boolean isDatabaseUnavailable(Throwable error) {
+        return error instanceof SQLException || error instanceof RejectedExecutionException;
+    }
+    
+    /**
+     * Get the response body for a question and its answers, from the question cache
+     * when possible, or from a load already running for another request
+     *
+     * @return The serialized question page, or null if the question doesn't exist
+     * @throws CompletionException If loading the question or its answers failed
+     */
+    private CachedResponse loadQuestionResponse(int questionId) throws Exception {
+        TtlCache<Integer, CachedResponse> cache = QuestionCaches.details();
+        return cache.getOrLoad(questionId, () -> {
+            Long previousWriteAt = preferPrimarySince(cache.getInvalidatedAt(questionId));
+            try {
+                // Load the question and its answers in parallel
+                CompletableFuture<Question> questionFuture = asyncQuestionDAO.getQuestionById(questionId);
+                CompletableFuture<List<Answer>> answersFuture = asyncAnswerDAO.getAnswersByQuestionId(questionId);
+                
+                Question question = questionFuture.join();
+                if (question == null) {
+                    return null;
+                }
+                
+                // Build response
+                JsonObject responseBody = new JsonObject();
+                responseBody.addProperty("success", true);
+                responseBody.add("question", gson.toJsonTree(question));
+                responseBody.add("answers", gson.toJsonTree(answersFuture.join()));
+                return CachedResponse.of(gson.toJson(responseBody));
+            } finally {
+                ReadConsistency.setLastWriteAt(previousWriteAt);
+            }
+        });
+    }
+    
+    /**
+     * Send this thread's reads to the primary if a cached page changed more recently
+     * than the session's last write, since a replica may not have the change yet
+     *
+     * @param invalidatedAt When the page was invalidated, or null
+     * @return The previous last write time, to restore once the page is loaded
+     */
+    private Long preferPrimarySince(Long invalidatedAt) {
+        Long previousWriteAt = ReadConsistency.getLastWriteAt();
+        if (invalidatedAt != null && (previousWriteAt == null || invalidatedAt > previousWriteAt)) {
+            ReadConsistency.setLastWriteAt(invalidatedAt);
+        }
+        return previousWriteAt;
+    }
+    
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -128,9 +327,17 @@ public class QuestionServlet extends HttpServlet {
         String title = requestBody.get("title").getAsString();
         String body = requestBody.get("body").getAsString();
         String category = requestBody.get("category").getAsString();
-        String tags = requestBody.has("tags") ? requestBody.get("tags").getAsString() : "";
         boolean isAnonymous = requestBody.has("isAnonymous") && requestBody.get("isAnonymous").getAsBoolean();
         
+        // Tags may be sent as a comma-separated string or as an array of names
+        List<String> tags;
+        try {
+            tags = parseTagsParam(requestBody.get("tags"));
+        } catch (IllegalArgumentException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        
         // Create new question
         Question newQuestion = new Question();
         newQuestion.setTitle(title);
@@ -138,6 +345,7 @@ public class QuestionServlet extends HttpServlet {
         newQuestion.setCategory(category);
         newQuestion.setTags(tags);
         newQuestion.setUserId(currentUser.getId());
+        newQuestion.setUserName(currentUser.getName());
         newQuestion.setAnonymous(isAnonymous);
         
         try {
@@ -215,6 +423,90 @@ public class QuestionServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Streams questions straight from the database cursor into the response, flushing
+     * every EXPORT_FLUSH_ROWS rows, so neither the rows nor the JSON are held in memory.
+     * Only logged-in users may export, since each export holds a pooled connection.
+     */
+    private void exportQuestions(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("user") == null) {
+            sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "You must be logged in to export questions");
+            return;
+        }
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        
+        JsonWriter writer = new JsonWriter(response.getWriter());
+        try {
+            writer.beginObject();
+            writer.name("questions");
+            writer.beginArray();
+            
+            int count = questionDAO.exportQuestions(request.getParameter("category"), new QuestionDAO.QuestionHandler() {
+                private int written;
+                
+                @Override
+                public void handle(Question question) throws IOException {
+                    gson.toJson(question, Question.class, writer);
+                    if (++written % EXPORT_FLUSH_ROWS == 0) {
+                        writer.flush();
+                    }
+                }
+            });
+            
+            writer.endArray();
+            writer.name("count").value(count);
+            writer.endObject();
+            writer.flush();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            if (response.isCommitted()) {
+                // Too late for an error status; failing the request makes the server abort
+                // the response instead of ending it as if the export were complete
+                throw new IOException("Export failed after the response was committed", e);
+            } else {
+                response.resetBuffer();
+                sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Parses the page size parameter, clamped to 1..MAX_PAGE_SIZE
+     */
+    private int parseLimit(String value) {
+        if (value == null || value.isEmpty()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            return Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+    }
+    
+    /**
+     * Parses the tags of a new question, given as "a, b" or ["a", "b"]
+     * 
+     * @throws IllegalArgumentException If a tag is too long
+     */
+    private List<String> parseTagsParam(JsonElement value) {
+        if (value == null || value.isJsonNull()) {
+            return Question.parseTags(null);
+        }
+        if (value.isJsonArray()) {
+            List<String> names = new ArrayList<>();
+            for (JsonElement element : value.getAsJsonArray()) {
+                names.add(element.getAsString().replace(",", " "));
+            }
+            return Question.parseTags(String.join(",", names));
+        }
+        return Question.parseTags(value.getAsString());
+    }
+    
     /**
      * Utility method to send JSON responses
      */
@@ -226,6 +518,29 @@ public class QuestionServlet extends HttpServlet {
         out.flush();
     }
     
+    /**
+     * Writes a cached JSON body straight to the output stream, compressed if the
+     * client accepts gzip
+     */
+    private void sendCachedResponse(HttpServletRequest request, HttpServletResponse response,
+                                    CachedResponse cached) throws IOException {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        byte[] gzipped = cached.getGzipped();
+        boolean useGzip = gzipped != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = useGzip ? gzipped : cached.getBody();
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Vary", "Accept-Encoding");
+        if (useGzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(body.length);
+        OutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+    
     /**
      * Utility method to send error responses
      */
@@ -0,0 +1,60 @@
+package com.peerq.web;
+
+import com.peerq.util.ReadConsistency;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Filter that carries the read-your-writes timestamp between requests of the same
+ * HTTP session, so that a user who just posted reads from the primary database
+ * rather than a replica that may not have the new row yet.
+ */
+public class ReadConsistencyFilter implements Filter {
+    private static final String LAST_WRITE_ATTRIBUTE = "lastWriteAt";
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpSession session = httpRequest.getSession(false);
+        Long before = session != null ? (Long) session.getAttribute(LAST_WRITE_ATTRIBUTE) : null;
+        ReadConsistency.setLastWriteAt(before);
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Long after = ReadConsistency.getLastWriteAt();
+            ReadConsistency.clear();
+
+            if (after != null && !Objects.equals(before, after)) {
+                // Writes require a login, so the session normally exists by now
+                HttpSession current = httpRequest.getSession(false);
+                if (current != null) {
+                    try {
+                        current.setAttribute(LAST_WRITE_ATTRIBUTE, after);
+                    } catch (IllegalStateException e) {
+                        // Session was invalidated during the request (logout)
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
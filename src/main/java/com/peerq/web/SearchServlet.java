@@ -0,0 +1,92 @@
+package com.peerq.web;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.peerq.model.Question;
+import com.peerq.search.SearchIndex;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Servlet for live search, answered from the in-memory SearchIndex without any
+ * database access. GET /api/search?q=...&limit=... returns the best matches first;
+ * GET /api/search/suggest?q=... returns a typo-corrected "did you mean" query.
+ */
+public class SearchServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    private final Gson gson = new Gson();
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        SearchIndex index = SearchIndex.getInstance();
+        if (!index.isReady()) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Search index is warming up");
+            return;
+        }
+
+        String query = request.getParameter("q");
+        String pathInfo = request.getPathInfo();
+
+        if ("/suggest".equals(pathInfo)) {
+            JsonObject responseBody = new JsonObject();
+            responseBody.addProperty("suggestion", index.suggest(query));
+            sendJsonResponse(response, HttpServletResponse.SC_OK, responseBody);
+            return;
+        }
+        if (pathInfo != null && !pathInfo.equals("/")) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Not found");
+            return;
+        }
+
+        int limit = DEFAULT_LIMIT;
+        String limitParam = request.getParameter("limit");
+        if (limitParam != null && !limitParam.isEmpty()) {
+            try {
+                limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(limitParam)));
+            } catch (NumberFormatException e) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid limit");
+                return;
+            }
+        }
+
+        List<Question> questions = index.search(query == null ? "" : query, limit);
+
+        JsonObject responseBody = new JsonObject();
+        responseBody.add("questions", gson.toJsonTree(questions));
+        if (questions.isEmpty()) {
+            responseBody.addProperty("suggestion", index.suggest(query));
+        }
+        sendJsonResponse(response, HttpServletResponse.SC_OK, responseBody);
+    }
+
+    /**
+     * Utility method to send JSON responses
+     */
+    private void sendJsonResponse(HttpServletResponse response, int status, JsonObject body) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        PrintWriter out = response.getWriter();
+        out.print(gson.toJson(body));
+        out.flush();
+    }
+
+    /**
+     * Utility method to send error responses
+     */
+    private void sendError(HttpServletResponse response, int status, String message) throws IOException {
+        JsonObject responseBody = new JsonObject();
+        responseBody.addProperty("success", false);
+        responseBody.addProperty("message", message);
+        sendJsonResponse(response, status, responseBody);
+    }
+}
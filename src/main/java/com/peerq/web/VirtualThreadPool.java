@@ -0,0 +1,82 @@
+package com.peerq.web;
+
+import com.peerq.util.DBExecutor;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty thread pool that runs every job on its own virtual thread.
+ *
+ * Requests that block on JDBC then park a cheap virtual thread instead of holding one of
+ * a fixed number of platform threads, so concurrency is limited by the connection pool
+ * rather than by the thread count. Virtual threads need a Java 21 runtime.
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger();
+
+    VirtualThreadPool(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a pool backed by a virtual-thread-per-task executor
+     *
+     * @return the pool, or null if the running JVM has no virtual threads
+     */
+    public static VirtualThreadPool create() {
+        ExecutorService executor = DBExecutor.newVirtualThreadExecutor();
+        return executor != null ? new VirtualThreadPool(executor) : null;
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        running.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    job.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        // Threads are created per job, so none sit idle
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
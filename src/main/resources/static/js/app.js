@@ -7,7 +7,15 @@
 const state = {
     user: null,              // Current logged-in user information
     currentQuestion: null,   // Currently viewed question details
-    questions: []            // List of questions for the main view
+    questions: [],           // List of questions for the main view
+    questionsCategory: '',   // Category filter of the loaded feed
+    questionsTag: '',        // Tag filter of the loaded feed
+    questionsFeed: 'recent', // 'recent' or 'hot'; category and tag filters always list recent questions
+    nextCursor: null,        // Cursor for the next page of the feed, null when all are loaded
+    loadingMore: false,      // Whether a further page is being fetched
+    searchParams: null,      // Query string of the active server-side search, null when the feed is shown
+    searchQuestions: [],     // Results of the active search
+    searchCursor: null       // Cursor for the next page of search results
 };
 
 // DOM element references - cached for performance
@@ -223,27 +231,64 @@ async function logout() {
  */
 
 /**
- * Load questions, optionally filtered by category
+ * Build the question feed endpoint for one page
  * @param {string} category - Optional category filter
+ * @param {string} cursor - Optional cursor of the page to fetch
+ * @param {string} tag - Optional tag filter
+ * @returns {string} - API endpoint
  */
-async function loadQuestions(category = '') {
+function questionsEndpoint(category, cursor, tag) {
+    const params = new URLSearchParams();
+    if (state.questionsFeed === 'hot' && !category && !tag) {
+        if (cursor) {
+            params.set('cursor', cursor);
+        }
+        const query = params.toString();
+        return query ? `/api/questions/hot?${query}` : '/api/questions/hot';
+    }
+    if (category) {
+        params.set('category', category);
+    }
+    if (tag) {
+        params.set('tag', tag);
+    }
+    if (cursor) {
+        params.set('cursor', cursor);
+    }
+    const query = params.toString();
+    return query ? `/api/questions?${query}` : '/api/questions';
+}
+
+/**
+ * Load the first page of questions, optionally filtered by category and tag
+ * @param {string} category - Optional category filter
+ * @param {string} tag - Optional tag filter
+ */
+async function loadQuestions(category = '', tag = '') {
     try {
         // Show loading indicator
         elements.questionsContainer.innerHTML = '<div class="loading">Loading questions...</div>';
         
-        // Build API endpoint with optional category filter
-        let endpoint = '/api/questions';
-        if (category) {
-            endpoint += `?category=${category}`;
-        }
+        // Fetch the first page from API
+        const page = await fetchAPI(questionsEndpoint(category, null, tag));
+        state.questions = page.questions;
+        state.questionsCategory = category;
+        state.questionsTag = tag;
         
-        // Fetch questions from API
-        const questions = await fetchAPI(endpoint);
-        state.questions = questions;
+        const title = document.getElementById('question-list-title');
+        if (title) {
+            title.textContent = state.questionsFeed === 'hot' && !category && !tag ? 'Hot Questions' : 'Recent Questions';
+        }
+        state.nextCursor = page.nextCursor || null;
         
-        // Render the questions to DOM
-        renderQuestions(questions);
+        // Render the questions to DOM, or re-run an active search for the new category
+        loadCategoryCounts();
         setupLiveSearchAndSort();
+        if (currentSearchParams()) {
+            runLiveSearch();
+        } else {
+            renderQuestions(state.questions);
+        }
     } catch (error) {
         console.error('Error loading questions:', error);
         // Show error with retry button
@@ -256,6 +301,102 @@ async function loadQuestions(category = '') {
     }
 }
 
+/**
+ * Show the number of questions in each category next to its name in the category filter
+ */
+async function loadCategoryCounts() {
+    const select = document.getElementById('category-filter');
+    if (!select) return;
+    
+    try {
+        const facets = await fetchAPI('/api/questions/facets?tagLimit=0');
+        const counts = {};
+        let total = 0;
+        facets.categories.forEach(facet => {
+            counts[facet.value] = facet.total;
+            total += facet.total;
+        });
+        
+        Array.from(select.options).forEach(option => {
+            if (!option.dataset.label) {
+                option.dataset.label = option.textContent;
+            }
+            const count = option.value ? (counts[option.value] || 0) : total;
+            option.textContent = `${option.dataset.label} (${count})`;
+        });
+    } catch (error) {
+        console.error('Error loading category counts:', error);
+    }
+}
+
+/**
+ * Fetch the next page of questions and append it to the feed
+ */
+async function loadMoreQuestions() {
+    if (state.searchParams) {
+        return loadMoreSearchResults();
+    }
+    if (!state.nextCursor || state.loadingMore) {
+        return;
+    }
+    
+    const category = state.questionsCategory;
+    const tag = state.questionsTag;
+    const cursor = state.nextCursor;
+    state.loadingMore = true;
+    
+    try {
+        const page = await fetchAPI(questionsEndpoint(category, cursor, tag));
+        
+        // Ignore the page if the feed was reloaded while it was in flight
+        if (state.nextCursor !== cursor || state.questionsCategory !== category || state.questionsTag !== tag) {
+            return;
+        }
+        
+        state.questions = state.questions.concat(page.questions);
+        state.nextCursor = page.nextCursor || null;
+        
+        // A search may have started while the page was in flight
+        if (!state.searchParams) {
+            renderQuestions(state.questions);
+        }
+    } catch (error) {
+        console.error('Error loading more questions:', error);
+    } finally {
+        state.loadingMore = false;
+    }
+}
+
+/**
+ * Fetch the next page of the active search and append it to the results
+ */
+async function loadMoreSearchResults() {
+    if (!state.searchCursor || state.loadingMore) {
+        return;
+    }
+    
+    const params = state.searchParams;
+    const cursor = state.searchCursor;
+    state.loadingMore = true;
+    
+    try {
+        const page = await fetchAPI(`/api/questions/search?${params}&cursor=${encodeURIComponent(cursor)}`);
+        
+        // Ignore the page if the search changed while it was in flight
+        if (state.searchParams !== params || state.searchCursor !== cursor) {
+            return;
+        }
+        
+        state.searchQuestions = state.searchQuestions.concat(page.questions);
+        state.searchCursor = page.nextCursor || null;
+        renderQuestions(state.searchQuestions);
+    } catch (error) {
+        console.error('Error loading more search results:', error);
+    } finally {
+        state.loadingMore = false;
+    }
+}
+
 /**
  * Load detailed view of a specific question with its answers
  * @param {string|number} questionId - ID of the question to load
@@ -445,10 +586,10 @@ function renderQuestions(questions) {
             <div class="question-stats">
                 <span>${question.answerCount || 0} answers</span>
             </div>
-            ${question.tags ? `
+            ${question.tags && question.tags.length > 0 ? `
                 <div class="question-tags">
-                    ${question.tags.split(',').map(tag => `
-                        <span class="question-tag">${tag.trim()}</span>
+                    ${question.tags.map(tag => `
+                        <span class="question-tag${tag === state.questionsTag ? ' active' : ''}" data-tag="${tag}">${tag}</span>
                     `).join('')}
                 </div>
             ` : ''}
@@ -458,6 +599,15 @@ function renderQuestions(questions) {
     // Insert HTML into container
     elements.questionsContainer.innerHTML = questionsHTML;
     
+    // Clicking a tag lists the questions with it; clicking the active tag clears the filter
+    document.querySelectorAll('.question-card .question-tag').forEach(tagElement => {
+        tagElement.addEventListener('click', event => {
+            event.stopPropagation();
+            const tag = tagElement.dataset.tag;
+            loadQuestions(state.questionsCategory, tag === state.questionsTag ? '' : tag);
+        });
+    });
+    
     // Add click event listeners to question cards
     document.querySelectorAll('.question-card').forEach(card => {
         card.addEventListener('click', () => {
@@ -613,34 +763,116 @@ function formatCategory(category) {
 }
 
 /**
- * Live filter and sort questions in the feed as the user types or changes sort
+ * Search questions on the server as the user types or changes sort, time or status filters
  */
 function setupLiveSearchAndSort() {
     const searchInput = document.getElementById('global-search');
     const sortSelect = document.getElementById('search-sort');
-    if (!searchInput || !sortSelect) return;
-
-    function filterAndSortQuestions() {
-        const searchTerm = searchInput.value.trim().toLowerCase();
-        const sortBy = sortSelect.value;
-        let filtered = state.questions.filter(q =>
-            q.title.toLowerCase().includes(searchTerm) ||
-            (q.tags && q.tags.toLowerCase().includes(searchTerm)) ||
-            (q.userName && q.userName.toLowerCase().includes(searchTerm))
-        );
-        // Sort
-        if (sortBy === 'newest') {
-            filtered.sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt));
-        } else if (sortBy === 'votes') {
-            filtered.sort((a, b) => (b.votes || 0) - (a.votes || 0));
-        } else if (sortBy === 'answers') {
-            filtered.sort((a, b) => (b.answerCount || 0) - (a.answerCount || 0));
-        } // else relevance = default order
-        renderQuestions(filtered);
+    if (!searchInput || !sortSelect || searchInput.dataset.liveSearchBound) return;
+    searchInput.dataset.liveSearchBound = 'true';
+
+    // Debounce typing so a search runs once the user pauses
+    let searchTimeout;
+    searchInput.addEventListener('input', function() {
+        clearTimeout(searchTimeout);
+        searchTimeout = setTimeout(runLiveSearch, 300);
+    });
+
+    // Filters apply immediately
+    sortSelect.addEventListener('change', runLiveSearch);
+    const timeSelect = document.getElementById('search-time');
+    if (timeSelect) {
+        timeSelect.addEventListener('change', runLiveSearch);
+    }
+    document.querySelectorAll('.search-filters-panel .checkbox-group input[type="checkbox"]').forEach(checkbox => {
+        checkbox.addEventListener('change', runLiveSearch);
+    });
+}
+
+/**
+ * Build the search query string from the search box and filters panel
+ * @returns {string|null} Query string, or null when no search or filter is set
+ */
+function currentSearchParams() {
+    const searchInput = document.getElementById('global-search');
+    const sortSelect = document.getElementById('search-sort');
+    const timeSelect = document.getElementById('search-time');
+    if (!searchInput || !sortSelect) return null;
+
+    const query = searchInput.value.trim();
+    const sort = sortSelect.value;
+    const time = timeSelect ? timeSelect.value : 'all';
+    const status = Array.from(document.querySelectorAll('.search-filters-panel .checkbox-group input[type="checkbox"]'))
+        .filter(checkbox => checkbox.checked)
+        .map(checkbox => checkbox.value);
+
+    // Nothing to search for: the regular feed already shows the newest questions
+    if (!query && sort === 'relevance' && time === 'all' && status.length === 0) {
+        return null;
     }
 
-    searchInput.addEventListener('input', filterAndSortQuestions);
-    sortSelect.addEventListener('change', filterAndSortQuestions);
+    const params = new URLSearchParams();
+    if (query) params.set('q', query);
+    params.set('sort', sort);
+    params.set('time', time);
+    if (status.length > 0) params.set('status', status.join(','));
+    if (state.questionsCategory) params.set('category', state.questionsCategory);
+    if (state.questionsTag) params.set('tag', state.questionsTag);
+    return params.toString();
+}
+
+/**
+ * Run the current search on the server, or show the feed again when it is cleared
+ */
+async function runLiveSearch() {
+    const params = currentSearchParams();
+    state.searchParams = params;
+    state.searchCursor = null;
+
+    if (!params) {
+        state.searchQuestions = [];
+        renderQuestions(state.questions);
+        return;
+    }
+
+    try {
+        const page = await fetchAPI(`/api/questions/search?${params}`);
+
+        // Drop responses for searches that have since been replaced
+        if (state.searchParams !== params) {
+            return;
+        }
+
+        state.searchQuestions = page.questions;
+        state.searchCursor = page.nextCursor || null;
+        renderQuestions(state.searchQuestions);
+        if (page.suggestion) {
+            renderSearchSuggestion(page.suggestion);
+        }
+    } catch (error) {
+        console.error('Search error:', error);
+    }
+}
+
+/**
+ * Show a "Did you mean" link above empty search results that searches for the suggestion
+ * @param {string} suggestion - Corrected query returned by the server
+ */
+function renderSearchSuggestion(suggestion) {
+    const hint = document.createElement('p');
+    hint.className = 'search-suggestion';
+    hint.textContent = 'Did you mean ';
+    const link = document.createElement('a');
+    link.href = '#';
+    link.textContent = suggestion;
+    link.addEventListener('click', function(e) {
+        e.preventDefault();
+        document.getElementById('global-search').value = suggestion;
+        runLiveSearch();
+    });
+    hint.appendChild(link);
+    hint.appendChild(document.createTextNode('?'));
+    elements.questionsContainer.prepend(hint);
 }
 
 /**
@@ -902,11 +1134,28 @@ function setupEventListeners() {
         showSection(elements.questionList);
     });
     
+    // Recent or hot feed
+    document.getElementById('feed-order').addEventListener('change', function() {
+        state.questionsFeed = this.value;
+        loadQuestions(state.questionsCategory, state.questionsTag);
+    });
+    
     // Category filter
     document.getElementById('category-filter').addEventListener('change', function() {
         const category = this.value;
-        loadQuestions(category);
+        loadQuestions(category, state.questionsTag);
     });
+    
+    // Infinite scroll: fetch the next page when the feed nears the bottom of the window
+    window.addEventListener('scroll', function() {
+        if (elements.questionList.classList.contains('hidden')) {
+            return;
+        }
+        const nearBottom = window.innerHeight + window.scrollY >= document.body.offsetHeight - 300;
+        if (nearBottom) {
+            loadMoreQuestions();
+        }
+    }, { passive: true });
 }
 
 // Initialize app when DOM is loaded
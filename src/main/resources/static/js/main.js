@@ -3,9 +3,9 @@ document.addEventListener('DOMContentLoaded', function() {
     const searchInput = document.getElementById('global-search');
     const filtersBtn = document.querySelector('.search-filters-btn');
     const filtersPanel = document.querySelector('.search-filters-panel');
-    const sortSelect = document.getElementById('sort-filter');
-    const timeSelect = document.getElementById('time-filter');
-    const statusCheckboxes = document.querySelectorAll('.status-filter');
+    const sortSelect = document.getElementById('search-sort');
+    const timeSelect = document.getElementById('search-time');
+    const statusCheckboxes = document.querySelectorAll('.search-filters-panel .checkbox-group input[type="checkbox"]');
 
     // Toggle filters panel
     filtersBtn.addEventListener('click', function(e) {
@@ -52,7 +52,7 @@ document.addEventListener('DOMContentLoaded', function() {
         fetch(`/api/questions/search?q=${encodeURIComponent(searchTerm)}&sort=${sortBy}&time=${timeFilter}&status=${statusFilters.join(',')}`)
             .then(response => response.json())
             .then(data => {
-                updateQuestionList(data);
+                updateQuestionList(data.questions);
             })
             .catch(error => {
                 console.error('Search error:', error);
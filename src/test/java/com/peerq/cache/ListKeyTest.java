@@ -0,0 +1,43 @@
+package com.peerq.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests that list cache keys only match for identical query parameters
+ */
+public class ListKeyTest {
+
+    @Test
+    public void equalParametersShareAnEntry() throws Exception {
+        ListKey key = new ListKey("Technology", "java", "abc", 20, true);
+        ListKey same = new ListKey("Technology", "java", "abc", 20, true);
+        assertEquals(key, same);
+        assertEquals(key.hashCode(), same.hashCode());
+
+        TtlCache<ListKey, String> cache = new TtlCache<>("test", 10, 60_000);
+        cache.getOrLoad(key, () -> "page");
+        assertEquals("page", cache.getOrLoad(same, () -> "reloaded"));
+    }
+
+    @Test
+    public void separatorsInValuesDoNotCollide() throws Exception {
+        // Both were "a|b|null|null|20|false" when the parameters were joined with '|'
+        ListKey categoryWithSeparator = new ListKey("a|b", null, null, 20, false);
+        ListKey tagWithSeparator = new ListKey("a", "b|null", null, 20, false);
+        assertNotEquals(categoryWithSeparator, tagWithSeparator);
+
+        TtlCache<ListKey, String> cache = new TtlCache<>("test", 10, 60_000);
+        cache.getOrLoad(categoryWithSeparator, () -> "category a|b");
+        assertEquals("tag b|null", cache.getOrLoad(tagWithSeparator, () -> "tag b|null"));
+    }
+
+    @Test
+    public void absentParameterDiffersFromTheTextNull() {
+        assertNotEquals(new ListKey(null, null, null, 20, false), new ListKey("null", null, null, 20, false));
+        assertNotEquals(new ListKey(null, null, null, 20, false), new ListKey(null, null, null, 21, false));
+        assertNotEquals(new ListKey(null, null, null, 20, false), new ListKey(null, null, null, 20, true));
+    }
+}
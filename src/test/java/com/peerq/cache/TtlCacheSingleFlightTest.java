@@ -0,0 +1,124 @@
+package com.peerq.cache;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for sharing one load among concurrent misses of the same key
+ */
+public class TtlCacheSingleFlightTest {
+    private static final int CALLERS = 4;
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @After
+    public void stopThreads() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "page";
+        };
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(threads.submit(() -> cache.getOrLoad("k", loader)));
+        }
+        awaitCoalesced(cache, CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("page", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals("page", cache.getOrLoad("k", loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void loaderFailureReachesEveryWaiterAndIsNotCached() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        SQLException failure = new SQLException("database down");
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(threads.submit(() -> cache.getOrLoad("k", () -> {
+                release.await();
+                throw failure;
+            })));
+        }
+        awaitCoalesced(cache, CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("Expected the loader's exception");
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+        assertEquals("recovered", cache.getOrLoad("k", () -> "recovered"));
+    }
+
+    @Test
+    public void missAfterAnInvalidationStartsItsOwnLoad() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> stale = threads.submit(() -> cache.getOrLoad("k", () -> {
+            started.countDown();
+            release.await();
+            return "before write";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // A write lands while the first load is still reading
+        cache.invalidate("k");
+        assertEquals("after write", cache.getOrLoad("k", () -> "after write"));
+        assertEquals(0, cache.getCoalesced());
+
+        release.countDown();
+        assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+        assertEquals("after write", cache.getOrLoad("k", () -> "reloaded"));
+    }
+
+    /**
+     * Waits until the given number of callers have joined the load in flight
+     */
+    private static void awaitCoalesced(TtlCache<?, ?> cache, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.getCoalesced() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Only " + cache.getCoalesced() + " of " + expected + " callers joined the load");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.peerq.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for expiry, eviction and invalidation of the TTL cache
+ */
+public class TtlCacheTest {
+
+    @Test
+    public void servesLoadedValuesUntilTheyExpire() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 200);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.getOrLoad("k", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.getOrLoad("k", () -> "v" + loads.incrementAndGet()));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        Thread.sleep(250);
+        assertEquals("v2", cache.getOrLoad("k", () -> "v" + loads.incrementAndGet()));
+    }
+
+    @Test
+    public void doesNotCacheMissingValues() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.getOrLoad("k", () -> { loads.incrementAndGet(); return null; }));
+        assertNull(cache.getOrLoad("k", () -> { loads.incrementAndGet(); return null; }));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntry() throws Exception {
+        TtlCache<Integer, String> cache = new TtlCache<>("test", 2, 60_000);
+        cache.getOrLoad(1, () -> "one");
+        cache.getOrLoad(2, () -> "two");
+        cache.getOrLoad(1, () -> "reloaded");
+        cache.getOrLoad(3, () -> "three");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("one", cache.getOrLoad(1, () -> "reloaded"));
+        assertEquals("two again", cache.getOrLoad(2, () -> "two again"));
+    }
+
+    @Test
+    public void invalidateDropsTheValueAndRemembersWhen() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+        cache.getOrLoad("k", () -> "old");
+        assertNull(cache.getInvalidatedAt("k"));
+
+        long before = System.currentTimeMillis();
+        cache.invalidate("k");
+        Long invalidatedAt = cache.getInvalidatedAt("k");
+        assertNotNull(invalidatedAt);
+        assertTrue(invalidatedAt >= before);
+
+        assertEquals("new", cache.getOrLoad("k", () -> "new"));
+        assertNull(cache.getInvalidatedAt("k"));
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void refusesValuesLoadedBeforeAnInvalidation() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+
+        // The write commits while the load is reading the old data
+        assertEquals("stale", cache.getOrLoad("k", () -> {
+            cache.invalidate("k");
+            return "stale";
+        }));
+        assertEquals("fresh", cache.getOrLoad("k", () -> "fresh"));
+    }
+
+    @Test
+    public void invalidateAllRefusesEveryLoadInProgress() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60_000);
+        cache.getOrLoad("a", () -> "a1");
+
+        assertEquals("b1", cache.getOrLoad("b", () -> {
+            cache.invalidateAll();
+            return "b1";
+        }));
+
+        assertEquals(0, cache.size());
+        assertNotNull(cache.getInvalidatedAt("a"));
+        assertEquals("a2", cache.getOrLoad("a", () -> "a2"));
+        assertEquals("b2", cache.getOrLoad("b", () -> "b2"));
+        assertEquals("a2", cache.getOrLoad("a", () -> "a3"));
+    }
+
+    @Test
+    public void disabledCacheLoadsEveryTime() throws Exception {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad("k", () -> "v" + loads.incrementAndGet());
+        assertEquals("v2", cache.getOrLoad("k", () -> "v" + loads.incrementAndGet()));
+        assertEquals(0, cache.getHits());
+
+        // Still recorded, so loads started before a write are not shared after it
+        cache.invalidate("k");
+        assertEquals(1, cache.getInvalidations());
+    }
+}
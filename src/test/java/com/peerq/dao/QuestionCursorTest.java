@@ -0,0 +1,79 @@
+package com.peerq.dao;
+
+import com.peerq.model.QuestionSearch;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the opaque keyset cursors of question listings and searches
+ */
+public class QuestionCursorTest {
+
+    @Test
+    public void timestampCursorRoundTrips() {
+        Timestamp createdAt = Timestamp.valueOf("2026-10-18 09:04:48.90952");
+        String cursor = QuestionDAO.encodeCursor(createdAt, 42);
+
+        String[] position = QuestionDAO.decodeCursor(cursor);
+        assertArrayEquals(new String[] {createdAt.toString(), "42"}, position);
+        assertEquals(createdAt, QuestionDAO.parseTimestampKey(position[0]));
+    }
+
+    @Test
+    public void cursorIsUrlSafe() {
+        String cursor = QuestionDAO.encodeCursor("RELEVANCE:0.0607927", Integer.MAX_VALUE);
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+    }
+
+    @Test
+    public void searchCursorRoundTripsForEverySort() {
+        assertEquals(0.25f, searchKey(QuestionSearch.Sort.RELEVANCE, "RELEVANCE:0.25"));
+        assertEquals(7, searchKey(QuestionSearch.Sort.VOTES, "VOTES:7"));
+        assertEquals(3, searchKey(QuestionSearch.Sort.ANSWERS, "ANSWERS:3"));
+        assertEquals(Timestamp.valueOf("2026-10-18 09:04:48.5"),
+                searchKey(QuestionSearch.Sort.NEWEST, "NEWEST:2026-10-18 09:04:48.5"));
+    }
+
+    @Test
+    public void rejectsMalformedCursors() {
+        assertInvalid(() -> QuestionDAO.decodeCursor("not base64!"));
+        assertInvalid(() -> QuestionDAO.decodeCursor(encode("no separator")));
+        assertInvalid(() -> QuestionDAO.decodeCursor(encode("a|b|3")));
+        assertInvalid(() -> QuestionDAO.decodeCursor(encode("2026-10-18 09:04:48|x")));
+        assertInvalid(() -> QuestionDAO.parseTimestampKey("yesterday"));
+    }
+
+    @Test
+    public void rejectsSearchKeysOfAnotherSortOrType() {
+        assertInvalid(() -> QuestionDAO.parseSearchKey(QuestionSearch.Sort.VOTES, "ANSWERS:3"));
+        assertInvalid(() -> QuestionDAO.parseSearchKey(QuestionSearch.Sort.VOTES, "VOTES:1.5"));
+        assertInvalid(() -> QuestionDAO.parseSearchKey(QuestionSearch.Sort.RELEVANCE, "RELEVANCE:NaN"));
+        assertInvalid(() -> QuestionDAO.parseSearchKey(QuestionSearch.Sort.NEWEST, "NEWEST:7"));
+    }
+
+    private static Object searchKey(QuestionSearch.Sort sort, String key) {
+        String[] position = QuestionDAO.decodeCursor(QuestionDAO.encodeCursor(key, 1));
+        return QuestionDAO.parseSearchKey(sort, position[0]);
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(Runnable decode) {
+        try {
+            decode.run();
+            fail("Expected an invalid cursor");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+}
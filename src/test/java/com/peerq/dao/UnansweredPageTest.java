@@ -0,0 +1,99 @@
+package com.peerq.dao;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the unanswered listing's query, category filter and cursors
+ */
+public class UnansweredPageTest {
+
+    @Test
+    public void predicateMatchesThePartialIndexes() throws Exception {
+        String migration = new String(Files.readAllBytes(
+                Paths.get("sql/migrations/003_unanswered_partial_indexes.sql")), StandardCharsets.UTF_8);
+        String indexPredicate = "WHERE " + QuestionDAO.UNANSWERED_PREDICATE + ";";
+        assertEquals(2, count(migration, indexPredicate));
+
+        String sql = QuestionDAO.pageSql(false, true, false, false);
+        assertTrue(sql.contains("AND q." + QuestionDAO.UNANSWERED_PREDICATE + " "));
+        assertFalse(sql.contains("answers a"));
+        assertTrue(sql.endsWith("ORDER BY q.created_at DESC, q.id DESC LIMIT ?"));
+    }
+
+    @Test
+    public void onlyUnansweredListingsFilterOnAnswerCount() {
+        assertFalse(QuestionDAO.pageSql(false, false, true, true).contains(QuestionDAO.UNANSWERED_PREDICATE));
+        assertFalse(QuestionDAO.pageSql(true, false, false, false).contains(QuestionDAO.UNANSWERED_PREDICATE));
+    }
+
+    @Test
+    public void categoryAndCursorBindBeforeTheLimit() {
+        String sql = QuestionDAO.pageSql(false, true, true, true);
+        int category = sql.indexOf("AND q.category = ?");
+        int keyset = sql.indexOf("AND (q.created_at, q.id) < (?, ?)");
+        int limit = sql.indexOf("LIMIT ?");
+
+        assertTrue(category > 0 && category < keyset && keyset < limit);
+        assertEquals(4, count(sql, "?"));
+    }
+
+    @Test
+    public void firstPageHasNoKeysetCondition() {
+        String sql = QuestionDAO.pageSql(false, true, true, false);
+        assertFalse(sql.contains("<"));
+        assertEquals(2, count(sql, "?"));
+    }
+
+    @Test
+    public void tagPagesAreKeyedOnQuestionTags() {
+        String sql = QuestionDAO.pageSql(true, true, false, true);
+        assertTrue(sql.contains("AND q." + QuestionDAO.UNANSWERED_PREDICATE + " "));
+        assertTrue(sql.contains("AND (qt.created_at, qt.question_id) < (?, ?)"));
+        assertTrue(sql.endsWith("ORDER BY qt.created_at DESC, qt.question_id DESC LIMIT ?"));
+    }
+
+    @Test
+    public void rejectsCursorsOfOtherListingsBeforeQuerying() throws Exception {
+        // Decoding fails before a connection is borrowed, so no database is needed
+        QuestionDAO dao = new QuestionDAO();
+        assertInvalid(dao, QuestionDAO.encodeCursor("VOTES:7", 3));
+        assertInvalid(dao, QuestionDAO.encodeCursor("HOT", 40));
+        assertInvalid(dao, "not a cursor!");
+    }
+
+    @Test
+    public void cursorResumesAfterTheLastQuestion() {
+        Timestamp lastCreatedAt = Timestamp.valueOf("2026-10-18 09:04:48.90952");
+        String[] position = QuestionDAO.decodeCursor(QuestionDAO.encodeCursor(lastCreatedAt, 42));
+
+        assertEquals(lastCreatedAt, QuestionDAO.parseTimestampKey(position[0]));
+        assertEquals(42, Integer.parseInt(position[1]));
+    }
+
+    private static void assertInvalid(QuestionDAO dao, String cursor) throws Exception {
+        try {
+            dao.getUnansweredQuestionsPage("Technology", cursor, 20);
+            fail("Expected an invalid cursor");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,90 @@
+package com.peerq.feed;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the in-memory top-K ranking of hot questions
+ */
+public class HotFeedTest {
+
+    @Test
+    public void ranksHottestFirstWithNewerQuestionsWinningTies() {
+        HotFeed feed = new HotFeed(10);
+        feed.update(1, 2.0);
+        feed.update(2, 5.0);
+        feed.update(3, 2.0);
+        feed.update(4, 3.5);
+
+        assertEquals(Arrays.asList(2, 4, 3, 1), feed.page(0, 10));
+    }
+
+    @Test
+    public void keepsOnlyTheTopK() {
+        HotFeed feed = new HotFeed(3);
+        for (int id = 1; id <= 5; id++) {
+            feed.update(id, id);
+        }
+        assertEquals(Arrays.asList(5, 4, 3), feed.page(0, 10));
+
+        // Not hotter than the coolest ranked question, so it stays out
+        feed.update(6, 3.0);
+        assertEquals(Arrays.asList(5, 4, 3), feed.page(0, 10));
+
+        // An event on an evicted question brings it back in
+        feed.update(1, 4.5);
+        assertEquals(Arrays.asList(5, 1, 4), feed.page(0, 10));
+    }
+
+    @Test
+    public void scoresOnlyRise() {
+        HotFeed feed = new HotFeed(10);
+        feed.update(1, 3.0);
+        feed.update(2, 2.0);
+
+        // A commit that was overtaken by a later event of the same question
+        feed.update(1, 1.0);
+        feed.update(2, Double.NaN);
+        assertEquals(Arrays.asList(1, 2), feed.page(0, 10));
+
+        feed.update(2, 4.0);
+        assertEquals(Arrays.asList(2, 1), feed.page(0, 10));
+    }
+
+    @Test
+    public void loadMergesWithScoresAlreadyHeld() {
+        HotFeed feed = new HotFeed(10);
+        feed.update(1, 6.0);
+        assertFalse(feed.isLoaded());
+
+        Map<Integer, Double> scores = new HashMap<>();
+        scores.put(1, 2.0);
+        scores.put(2, 4.0);
+        scores.put(3, 5.0);
+        feed.load(scores);
+
+        assertTrue(feed.isLoaded());
+        assertEquals(Arrays.asList(1, 3, 2), feed.page(0, 10));
+    }
+
+    @Test
+    public void pagesThroughTheRanking() {
+        HotFeed feed = new HotFeed(10);
+        for (int id = 1; id <= 5; id++) {
+            feed.update(id, id);
+        }
+
+        assertEquals(Arrays.asList(5, 4), feed.page(0, 2));
+        assertEquals(Arrays.asList(3, 2), feed.page(2, 2));
+        assertEquals(Collections.singletonList(1), feed.page(4, 2));
+        assertEquals(Collections.emptyList(), feed.page(5, 2));
+    }
+}
@@ -0,0 +1,47 @@
+package com.peerq.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for normalizing tag input into tag names
+ */
+public class QuestionTagsTest {
+
+    @Test
+    public void trimsLowerCasesAndDropsDuplicatesInOrder() {
+        assertEquals(Arrays.asList("java", "jdbc"), Question.parseTags("Java, jdbc ,java"));
+        assertEquals(Arrays.asList("spring boot", "sql"), Question.parseTags(" Spring Boot ,,SQL, "));
+    }
+
+    @Test
+    public void emptyOrMissingInputHasNoTags() {
+        assertEquals(Collections.emptyList(), Question.parseTags(null));
+        assertEquals(Collections.emptyList(), Question.parseTags(""));
+        assertEquals(Collections.emptyList(), Question.parseTags(" , ,"));
+    }
+
+    @Test
+    public void limitsTagLengthAfterTrimming() {
+        String longest = repeat('a', Question.MAX_TAG_LENGTH);
+        assertEquals(Collections.singletonList(longest), Question.parseTags("  " + longest + "  "));
+
+        try {
+            Question.parseTags("java, " + longest + "a");
+            fail("Expected a tag over MAX_TAG_LENGTH to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Tags must be at most " + Question.MAX_TAG_LENGTH + " characters", e.getMessage());
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,80 @@
+package com.peerq.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for typo correction against the title and tag vocabulary
+ */
+public class NGramIndexTest {
+
+    @Test
+    public void correctsOneEditInShortWords() {
+        NGramIndex index = indexOf("java", "python", "database");
+
+        assertEquals("java", index.correct("jav"));    // deletion
+        assertEquals("java", index.correct("javva"));  // insertion
+        assertEquals("java", index.correct("jaba"));   // substitution
+        assertEquals("java", index.correct("jvaa"));   // adjacent swap
+    }
+
+    @Test
+    public void allowsTwoEditsOnlyInLongerWords() {
+        NGramIndex index = indexOf("database", "java");
+
+        assertEquals("database", index.correct("databsae"));
+        assertEquals("database", index.correct("dtabsae"));
+        assertNull(index.correct("jbvb"));
+    }
+
+    @Test
+    public void neverCorrectsShortWordsNumbersOrKnownTerms() {
+        NGramIndex index = indexOf("go", "java", "2024");
+
+        assertNull(index.correct("ga"));
+        assertNull(index.correct("2025"));
+        assertNull(index.correct("java"));
+        assertFalse(index.contains("2024"));
+    }
+
+    @Test
+    public void prefersTheMostFrequentOfEquallyCloseTerms() {
+        NGramIndex index = indexOf("cart", "card", "card");
+
+        assertEquals("card", index.correct("carx"));
+        index.add("cart");
+        index.add("cart");
+        assertEquals("cart", index.correct("carx"));
+    }
+
+    @Test
+    public void clearForgetsTheVocabulary() {
+        NGramIndex index = indexOf("java");
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertNull(index.correct("jav"));
+        index.add("python");
+        assertTrue(index.contains("python"));
+    }
+
+    @Test
+    public void distanceCountsAdjacentSwapsAsOneEdit() {
+        assertEquals(1, NGramIndex.distance("jvaa", "java", 2));
+        assertEquals(3, NGramIndex.distance("kitten", "sitting", 3));
+        // Gives up once the distance exceeds the limit
+        assertEquals(3, NGramIndex.distance("abcdef", "uvwxyz", 2));
+    }
+
+    private static NGramIndex indexOf(String... terms) {
+        NGramIndex index = new NGramIndex();
+        for (String term : terms) {
+            index.add(term);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,91 @@
+package com.peerq.search;
+
+import com.peerq.dao.QuestionDAO;
+import com.peerq.model.Question;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that catching up from the database doesn't skip questions added live meanwhile
+ */
+public class SearchIndexCatchUpTest {
+
+    /**
+     * Serves questions 1..count in id order, failing while the database is "down"
+     */
+    private static class FakeQuestionDAO extends QuestionDAO {
+        private final int count;
+        boolean down;
+
+        FakeQuestionDAO(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public List<Question> getQuestionsAfterId(int afterId, int limit) throws SQLException {
+            if (down) {
+                throw new SQLException("database down");
+            }
+            List<Question> batch = new ArrayList<>();
+            for (int id = afterId + 1; id <= count && batch.size() < limit; id++) {
+                batch.add(question(id));
+            }
+            return batch;
+        }
+    }
+
+    @Test
+    public void liveAddDuringAFailedCatchUpDoesNotSkipOlderQuestions() {
+        SearchIndex index = new SearchIndex(null);
+        FakeQuestionDAO database = new FakeQuestionDAO(2500);
+
+        // Startup catch-up fails, then a question is created before the retry
+        database.down = true;
+        index.catchUp(database);
+        assertFalse(index.isReady());
+        index.add(question(2500));
+
+        database.down = false;
+        index.catchUp(database);
+
+        assertTrue(index.isReady());
+        assertEquals(2500, index.size());
+        assertEquals(1, index.search("topic1 ", 5).size());
+        assertEquals(1, index.search("topic1234 ", 5).size());
+    }
+
+    @Test
+    public void liveAddsBetweenBatchesAreNotCountedTwice() {
+        SearchIndex index = new SearchIndex(null);
+        FakeQuestionDAO database = new FakeQuestionDAO(1500) {
+            @Override
+            public List<Question> getQuestionsAfterId(int afterId, int limit) throws SQLException {
+                // A question is committed while each batch is being read
+                index.add(question(1500));
+                return super.getQuestionsAfterId(afterId, limit);
+            }
+        };
+
+        index.catchUp(database);
+
+        assertEquals(1500, index.size());
+        assertEquals(1, index.search("topic1500 ", 5).size());
+        assertEquals(1, index.search("topic999 ", 5).size());
+    }
+
+    private static Question question(int id) {
+        Question question = new Question();
+        question.setId(id);
+        question.setTitle("Question topic" + id);
+        question.setBody("Body of question " + id);
+        question.setTags(new ArrayList<>());
+        return question;
+    }
+}
@@ -0,0 +1,98 @@
+package com.peerq.util;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the per-connection prepared statement cache
+ */
+public class StatementCacheTest {
+    private final Set<PreparedStatement> closed = new HashSet<>();
+
+    @Test
+    public void takeRemovesTheStatementWhileInUse() {
+        StatementCache cache = new StatementCache(4);
+        PreparedStatement statement = statement();
+
+        assertTrue(cache.put("SELECT 1", statement));
+        assertSame(statement, cache.take("SELECT 1"));
+        assertNull(cache.take("SELECT 1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsAndClosesTheLeastRecentlyUsed() {
+        StatementCache cache = new StatementCache(2);
+        PreparedStatement first = statement();
+        PreparedStatement second = statement();
+        PreparedStatement third = statement();
+
+        cache.put("a", first);
+        cache.put("b", second);
+        // Using "a" again makes "b" the eldest
+        cache.put("a", cache.take("a"));
+        cache.put("c", third);
+
+        assertEquals(2, cache.size());
+        assertTrue(closed.contains(second));
+        assertFalse(closed.contains(first) || closed.contains(third));
+        assertNull(cache.take("b"));
+        assertSame(first, cache.take("a"));
+    }
+
+    @Test
+    public void refusesDuplicatesAndDisabledCaches() {
+        StatementCache cache = new StatementCache(2);
+        cache.put("a", statement());
+        // Two uses of the same SQL at once; the caller closes the second itself
+        assertFalse(cache.put("a", statement()));
+
+        StatementCache disabled = new StatementCache(0);
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.put("a", statement()));
+        assertTrue(closed.isEmpty());
+    }
+
+    @Test
+    public void clearClosesEveryCachedStatement() {
+        StatementCache cache = new StatementCache(4);
+        PreparedStatement first = statement();
+        PreparedStatement second = statement();
+        cache.put("a", first);
+        cache.put("b", second);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertTrue(closed.contains(first) && closed.contains(second));
+    }
+
+    /**
+     * A statement that only records being closed
+     */
+    private PreparedStatement statement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            closed.add((PreparedStatement) proxy);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}